@@ -0,0 +1,892 @@
+import java.util.Random;
+
+/**
+	Lockstep batch engine for game series.
+
+	Plays many games of one matchup side-by-side, keeping all in-game
+	records in primitive arrays with one slot ("lane") per game.
+	Each pass advances every live lane by one unit turn, and lanes are
+	retired from the active list as their games end.
+
+	Only handles plain troop units: no solos, no leaders, and none of
+	the magical specials (see isSupported). Other matchups are left to
+	the per-game engine in BookOfWar.
+
+	@author agent
+	@since 2026-10-18
+*/
+
+public class BatchEngine {
+
+	//----------------------------------------------------------------------
+	//  Constants
+	//----------------------------------------------------------------------
+
+	/** Maximum number of games in flight at once. */
+	private static final int MAX_LANES = 4096;
+
+	/** Terrain types by code. */
+	private static final BookOfWar.Terrain[] TERRAINS 
+		= BookOfWar.Terrain.values();
+
+	/** Number of terrain types. */
+	private static final int NUM_TERRAIN = BookOfWar.Terrain.values().length;
+
+	/** Number of weather types. */
+	private static final int NUM_WEATHER = BookOfWar.Weather.values().length;
+
+	/** Code for open terrain. */
+	private static final int OPEN = BookOfWar.Terrain.Open.ordinal();
+
+	/** Code for woods terrain. */
+	private static final int WOODS = BookOfWar.Terrain.Woods.ordinal();
+
+	/** Code for stream terrain. */
+	private static final int STREAM = BookOfWar.Terrain.Stream.ordinal();
+
+	/** Code for gulley terrain. */
+	private static final int GULLEY = BookOfWar.Terrain.Gulley.ordinal();
+
+	/** Code for sunny weather. */
+	private static final int SUNNY = BookOfWar.Weather.Sunny.ordinal();
+
+	/** Code for rainy weather. */
+	private static final int RAINY = BookOfWar.Weather.Rainy.ordinal();
+
+	/** Special types handled by this engine. */
+	private static final SpecialType[] SUPPORTED_SPECIALS = {
+		SpecialType.Pikes, SpecialType.Mounts, SpecialType.SplitMove,
+		SpecialType.MoraleBonus, SpecialType.WoodsCover,
+		SpecialType.LightWeakness, SpecialType.GiantClass,
+		SpecialType.GiantDodging, SpecialType.ShotBonus,
+		SpecialType.MeleeShot, SpecialType.NoRainShot,
+		SpecialType.BigStones, SpecialType.DamageBonus,
+		SpecialType.Invisibility, SpecialType.Detection,
+		SpecialType.Regeneration, SpecialType.Flight,
+		SpecialType.Swimming, SpecialType.FireImmunity,
+		SpecialType.VoltImmunity, SpecialType.ColdImmunity,
+		SpecialType.AcidImmunity, SpecialType.PoisonImmunity,
+		SpecialType.Fearless
+	};
+
+	//----------------------------------------------------------------------
+	//  Fixed matchup fields (indexed by side: 0 = first unit)
+	//----------------------------------------------------------------------
+
+	/** Random number generator. */
+	private Random random;
+
+	/** Bulk dice roller. */
+	private DiceKernels dice;
+
+	/** Budget minimum and maximum. */
+	private int budgetMin, budgetMax;
+
+	/** Cost per figure. */
+	private int[] cost = new int[2];
+
+	/** Armor value. */
+	private int[] armor = new int[2];
+
+	/** Health per figure. */
+	private int[] health = new int[2];
+
+	/** Melee attacks per figure. */
+	private int[] attacks = new int[2];
+
+	/** Melee damage per hit. */
+	private int[] meleeDamage = new int[2];
+
+	/** Ranged damage per hit. */
+	private int[] rangedDamage = new int[2];
+
+	/** Missile rate per figure. */
+	private int[] rate = new int[2];
+
+	/** Missile range in inches. */
+	private int[] range = new int[2];
+
+	/** Figure width in quarter-inch units. */
+	private int[] figWidth = new int[2];
+
+	/** Figure length in quarter-inch units. */
+	private int[] figLength = new int[2];
+
+	/** Base attack bonus. */
+	private int[] baseAtk = new int[2];
+
+	/** Flying move in inches. */
+	private int[] flyMove = new int[2];
+
+	/** Detection range in inches. */
+	private int[] detection = new int[2];
+
+	/** Special ability flags. */
+	private boolean[] pikes = new boolean[2], mounts = new boolean[2],
+		splitMove = new boolean[2], meleeShot = new boolean[2],
+		damageBonus = new boolean[2], regenerates = new boolean[2],
+		fearless = new boolean[2], invisible = new boolean[2],
+		woodsCover = new boolean[2], flight = new boolean[2];
+
+	/** Move by side, terrain, and weather. */
+	private int[][][] moveTable = new int[2][NUM_TERRAIN][NUM_WEATHER];
+
+	/** Minimum shot distance by side & weather (if terrain permits). */
+	private int[][] minShotTable = new int[2][NUM_WEATHER];
+
+	/** Miscellaneous melee attack bonus by side & weather. */
+	private int[][] meleeBonus = new int[2][NUM_WEATHER];
+
+	/** Miscellaneous ranged attack bonus by side & weather. */
+	private int[][] rangedBonus = new int[2][NUM_WEATHER];
+
+	/** Morale bonus by side & weather (before rate of loss). */
+	private int[][] moraleBonus = new int[2][NUM_WEATHER];
+
+	//----------------------------------------------------------------------
+	//  Lane records
+	//----------------------------------------------------------------------
+
+	/** Terrain code per lane. */
+	private byte[] terrain;
+
+	/** Weather code per lane. */
+	private byte[] weather;
+
+	/** Distance between units per lane. */
+	private int[] distance;
+
+	/** Nominal budget less minimum per lane. */
+	private int[] budgetStep;
+
+	/** Are the units already in contact? */
+	private boolean[] priorContact;
+
+	/** Number of figures per side & lane. */
+	private int[][] figures;
+
+	/** Number of files per side & lane. */
+	private int[][] files;
+
+	/** Damage taken up to a figure loss per side & lane. */
+	private int[][] damageTaken;
+
+	/** Figures lost this turn per side & lane. */
+	private int[][] figsLostInTurn;
+
+	/** Routed status per side & lane. */
+	private boolean[][] routed;
+
+	/** Visibility per side & lane. */
+	private boolean[][] visible;
+
+	/** Last mark of game progress per lane. */
+	private long[] progressMark;
+
+	/** Rounds without progress per lane. */
+	private int[] stallRounds;
+
+	/** Indexes of lanes with games still in play. */
+	private int[] activeLanes;
+
+	//----------------------------------------------------------------------
+	//  Constructor
+	//----------------------------------------------------------------------
+
+	/**
+		Constructor.
+		@param unit1 first unit in matchup.
+		@param unit2 second unit in matchup.
+		@param budgetMin minimum random budget.
+		@param budgetMax maximum random budget.
+		@param random random number generator.
+	*/
+	public BatchEngine(Unit unit1, Unit unit2,
+			int budgetMin, int budgetMax, Random random) {
+		assert isSupported(unit1) && isSupported(unit2);
+		this.budgetMin = budgetMin;
+		this.budgetMax = budgetMax;
+		this.random = random;
+		dice = new DiceKernels(random);
+		setSide(0, unit1, unit2);
+		setSide(1, unit2, unit1);
+	}
+
+	//----------------------------------------------------------------------
+	//  Setup methods
+	//----------------------------------------------------------------------
+
+	/**
+		Can this engine play a given unit?
+		@param unit unit to check.
+		@return true if the unit has only supported features.
+	*/
+	public static boolean isSupported(Unit unit) {
+		if (unit.isSolo() || unit.hasLeader()
+			|| unit.isControlRequired())
+		{
+			return false;
+		}
+		int numSupported = 0;
+		for (SpecialType type: SUPPORTED_SPECIALS) {
+			if (unit.hasSpecial(type)) {
+				numSupported++;
+			}
+		}
+		return numSupported == unit.getNumSpecials();
+	}
+
+	/**
+		Set fixed records for one side.
+		@param side side index.
+		@param unit unit for this side.
+		@param enemy opposing unit.
+	*/
+	private void setSide(int side, Unit unit, Unit enemy) {
+		cost[side] = unit.getCost();
+		armor[side] = unit.getArmor();
+		health[side] = unit.getHealth();
+		attacks[side] = unit.getAttacks();
+		rate[side] = unit.getRate();
+		range[side] = unit.getRange();
+		figWidth[side] = unit.getFigWidthPips();
+		figLength[side] = unit.getFigLengthPips();
+		baseAtk[side] = unit.getHealth() / 3;
+		flyMove[side] = unit.getFlyMove();
+		detection[side] = unit.getSpecialParam(SpecialType.Detection);
+		pikes[side] = unit.hasSpecial(SpecialType.Pikes);
+		mounts[side] = unit.hasSpecial(SpecialType.Mounts);
+		splitMove[side] = unit.hasSpecial(SpecialType.SplitMove);
+		meleeShot[side] = unit.hasSpecial(SpecialType.MeleeShot);
+		damageBonus[side] = unit.hasSpecial(SpecialType.DamageBonus);
+		regenerates[side] = unit.hasSpecial(SpecialType.Regeneration);
+		fearless[side] = unit.isFearless();
+		invisible[side] = unit.hasSpecial(SpecialType.Invisibility);
+		woodsCover[side] = unit.hasSpecial(SpecialType.WoodsCover);
+		flight[side] = unit.hasSpecial(SpecialType.Flight);
+
+		// Damage per hit
+		meleeDamage[side] = unit.getDamage();
+		rangedDamage[side] = mounts[side] ? 1 : unit.getDamage();
+		if (unit.hasSpecial(SpecialType.BigStones)) {
+			rangedDamage[side] += 1;
+		}
+		if (BookOfWar.CAP_DAMAGE_BY_HEALTH) {
+			meleeDamage[side] = Math.min(meleeDamage[side], enemy.getHealth());
+			rangedDamage[side] = Math.min(rangedDamage[side], enemy.getHealth());
+		}
+
+		// Tables by terrain & weather
+		for (int w = 0; w < NUM_WEATHER; w++) {
+			for (int t = 0; t < NUM_TERRAIN; t++) {
+				moveTable[side][t][w] = computeMove(unit, t, w);
+			}
+			meleeBonus[side][w] = computeMiscAtkBonus(unit, enemy, w, false);
+			rangedBonus[side][w] = computeMiscAtkBonus(unit, enemy, w, true);
+			minShotTable[side][w] = computeMinShot(unit, enemy, w);
+			moraleBonus[side][w] = computeMoraleBonus(unit, w);
+		}
+	}
+
+	/**
+		Compute move for a unit in given terrain & weather.
+	*/
+	private static int computeMove(Unit unit, int terrain, int weather) {
+		int moveCost = getTerrainMoveCost(terrain);
+		if (unit.hasSpecial(SpecialType.Swimming) && terrain == STREAM) {
+			moveCost = 1;
+		}
+		if (unit.hasSpecial(SpecialType.Flight)) {
+			moveCost = 1;
+		}
+		if (weather == RAINY) {
+			moveCost *= 2;
+		}
+		if (unit.hasSpecial(SpecialType.Mounts) && moveCost > 1) {
+			moveCost *= 2;
+		}
+		int move = Math.max(unit.getMove(), unit.getFlyMove()) / moveCost;
+		return Math.max(move, 1);
+	}
+
+	/**
+		Get terrain movement cost.
+	*/
+	private static int getTerrainMoveCost(int terrain) {
+		switch (BookOfWar.Terrain.values()[terrain]) {
+			default: return 1;
+			case Hill: case Gulley: case Rough: case Woods: return 2;
+			case Marsh: return 3;
+			case Stream: return 4;
+		}
+	}
+
+	/**
+		Compute miscellaneous attack bonus (less any rear-attack bonus).
+	*/
+	private static int computeMiscAtkBonus(
+		Unit attacker, Unit defender, int weather, boolean ranged)
+	{
+		int bonus = 0;
+		if (ranged && weather == RAINY) {
+			bonus -= 1;
+		}
+		if (attacker.hasSpecial(SpecialType.LightWeakness)
+			&& weather == SUNNY)
+		{
+			bonus -= 1;
+		}
+		if (ranged && attacker.hasSpecial(SpecialType.ShotBonus)) {
+			bonus += attacker.getSpecialParam(SpecialType.ShotBonus);
+		}
+		if (attacker.hasSpecial(SpecialType.GiantClass)
+			&& defender.hasSpecial(SpecialType.GiantDodging))
+		{
+			bonus -= 1;
+		}
+		if (ranged && attacker.hasSpecial(SpecialType.Mounts)) {
+			bonus -= attacker.getHealth() / 3;
+		}
+		return bonus;
+	}
+
+	/**
+		Compute minimum distance to shoot (if terrain & vision permit).
+	*/
+	private static int computeMinShot(Unit attacker, Unit defender, int weather) {
+		if (!attacker.hasMissiles()
+			|| (weather == RAINY
+				&& attacker.hasSpecial(SpecialType.NoRainShot)))
+		{
+			return 0;
+		}
+		int baseToHit = defender.getArmor()
+			- attacker.getHealth() / 3
+			- computeMiscAtkBonus(attacker, defender, weather, true);
+		if (baseToHit > 6) { return 0; }
+		else if (baseToHit == 6) { return attacker.getRange() / 2; }
+		else { return attacker.getRange(); }
+	}
+
+	/**
+		Compute morale bonus (less rate of loss).
+	*/
+	private static int computeMoraleBonus(Unit unit, int weather) {
+		int bonus = unit.getHealth();
+		switch (unit.getAlignment()) {
+			case Lawful: bonus += 1; break;
+			case Chaotic: bonus -= 1; break;
+			default: break;
+		}
+		if (unit.hasSpecial(SpecialType.LightWeakness) && weather == SUNNY) {
+			bonus -= 1;
+		}
+		bonus += unit.getSpecialParam(SpecialType.MoraleBonus);
+		return bonus;
+	}
+
+	/**
+		Allocate lane arrays.
+		@param lanes number of lanes.
+	*/
+	private void allocateLanes(int lanes) {
+		terrain = new byte[lanes];
+		weather = new byte[lanes];
+		distance = new int[lanes];
+		budgetStep = new int[lanes];
+		priorContact = new boolean[lanes];
+		figures = new int[2][lanes];
+		files = new int[2][lanes];
+		damageTaken = new int[2][lanes];
+		figsLostInTurn = new int[2][lanes];
+		routed = new boolean[2][lanes];
+		visible = new boolean[2][lanes];
+		progressMark = new long[lanes];
+		stallRounds = new int[lanes];
+		activeLanes = new int[lanes];
+	}
+
+	//----------------------------------------------------------------------
+	//  Series methods
+	//----------------------------------------------------------------------
+
+	/**
+		Play part of a series of games.
+		@param trials number of games to play.
+		@param firstGame index of the first game in the whole series
+			(initiative alternates on it, as in BookOfWar.playSeries).
+		@return result record for the first unit.
+	*/
+	public SeriesResult playSeries(int trials, int firstGame) {
+		allocateLanes(Math.min(trials, MAX_LANES));
+		SeriesResult result = new SeriesResult();
+		int played = 0;
+		while (played < trials) {
+			int lanes = Math.min(trials - played, MAX_LANES);
+			playBlock(lanes, firstGame + played, result);
+			played += lanes;
+		}
+		return result;
+	}
+
+	/**
+		Play one block of games in lockstep.
+		Stalled lanes are drawn as in BookOfWar.playGame.
+		@param lanes number of games in block.
+		@param firstGame index of the block's first game in the series.
+		@param result result record to add games to.
+	*/
+	private void playBlock(int lanes, int firstGame, SeriesResult result) {
+		int numActive = 0;
+		for (int i = 0; i < lanes; i++) {
+			initLane(i);
+			activeLanes[numActive++] = i;
+		}
+
+		// Initiative for second unit to start (alternate games)
+		for (int k = 0; k < numActive; k++) {
+			if ((firstGame + k) % 2 == 0) {
+				oneTurn(1, 0, activeLanes[k]);
+			}
+		}
+
+		// Retire lanes won on the opening turn (no rounds, as in 
+		// BookOfWar.playGame) & mark progress for the rest
+		int kept = 0;
+		for (int k = 0; k < numActive; k++) {
+			int i = activeLanes[k];
+			if (!bothSidesLive(i)) {
+				addWin(i, 0, result);
+			}
+			else {
+				progressMark[i] = getProgressMark(i);
+				stallRounds[i] = 0;
+				activeLanes[kept++] = i;
+			}
+		}
+		numActive = kept;
+
+		// Battle until every lane has a winner (or stalemate)
+		int rounds = 0;
+		while (numActive > 0) {
+			for (int k = 0; k < numActive; k++) {
+				int i = activeLanes[k];
+				if (bothSidesLive(i)) {
+					oneTurn(0, 1, i);
+				}
+			}
+			for (int k = 0; k < numActive; k++) {
+				int i = activeLanes[k];
+				if (bothSidesLive(i)) {
+					oneTurn(1, 0, i);
+				}
+			}
+			rounds++;
+
+			// Retire finished lanes
+			kept = 0;
+			for (int k = 0; k < numActive; k++) {
+				int i = activeLanes[k];
+				if (!bothSidesLive(i)) {
+					addWin(i, rounds, result);
+				}
+				else if (isStalled(i) 
+					|| rounds >= BookOfWar.MAX_ROUNDS_PER_GAME)
+				{
+					result.addGame(BookOfWar.GameResult.Draw, rounds,
+						figures[0][i], figures[1][i], false,
+						TERRAINS[terrain[i]], budgetStep[i]);
+				}
+				else {
+					activeLanes[kept++] = i;
+				}
+			}
+			numActive = kept;
+		}
+	}
+
+	/**
+		Record a lane's game won by one side.
+		@param i lane index.
+		@param rounds rounds completed in the game.
+		@param result result record to add game to.
+	*/
+	private void addWin(int i, int rounds, SeriesResult result) {
+		int loser = isBeaten(0, i) ? 0 : 1;
+		result.addGame(loser == 0 ? BookOfWar.GameResult.Loss
+				: BookOfWar.GameResult.Win, rounds, 
+			figures[0][i], figures[1][i], routed[loser][i],
+			TERRAINS[terrain[i]], budgetStep[i]);
+	}
+
+	/**
+		Update stall count for a lane.
+		@return true if the lane has made no progress for too long.
+	*/
+	private boolean isStalled(int i) {
+		long newMark = getProgressMark(i);
+		stallRounds[i] = newMark == progressMark[i] ? stallRounds[i] + 1 : 0;
+		progressMark[i] = newMark;
+		return stallRounds[i] >= BookOfWar.STALL_ROUND_LIMIT;
+	}
+
+	/**
+		Get a mark of lane progress (figures, damage taken, distance
+		& visibility), as in BookOfWar.getProgressMark.
+	*/
+	private long getProgressMark(int i) {
+		long mark = 0;
+		for (int s = 0; s < 2; s++) {
+			mark = BookOfWar.mixProgressMark(mark, figures[s][i]);
+			mark = BookOfWar.mixProgressMark(mark, damageTaken[s][i]);
+		}
+		mark = BookOfWar.mixProgressMark(mark, distance[i]);
+		return BookOfWar.mixProgressMark(mark, 
+			(visible[0][i] ? 2 : 0) | (visible[1][i] ? 1 : 0));
+	}
+
+	/**
+		Initialize battlefield & units for one lane.
+	*/
+	private void initLane(int i) {
+
+		// Battlefield
+		terrain[i] = (byte) BookOfWar.rollTerrain(random).ordinal();
+		weather[i] = (byte) BookOfWar.rollWeather(random).ordinal();
+		distance[i] = 25 + random.nextInt(25);
+		priorContact[i] = false;
+
+		// Budget (as in BookOfWar.initUnitsByBudget)
+		budgetStep[i] = random.nextInt(budgetMax - budgetMin);
+		int budget = budgetMin + budgetStep[i];
+		int maxCost = Math.max(cost[0], cost[1]);
+		if (maxCost > budget) {
+			budget = maxCost + Math.min(cost[0], cost[1]) / 2;
+		}
+
+		// Units
+		for (int s = 0; s < 2; s++) {
+			int figs = (int) ((double) budget / cost[s] + 0.5);
+			figures[s][i] = figs;
+			files[s][i] = BookOfWar.getStartFiles(figs);
+			damageTaken[s][i] = 0;
+			figsLostInTurn[s][i] = 0;
+			routed[s][i] = false;
+			visible[s][i] = !(invisible[s]
+				|| (woodsCover[s] && terrain[i] == WOODS));
+		}
+	}
+
+	//----------------------------------------------------------------------
+	//  Turn methods (one lane)
+	//----------------------------------------------------------------------
+
+	/**
+		Play out one turn of action for one attacking side.
+	*/
+	private void oneTurn(int atk, int def, int i) {
+		figsLostInTurn[def][i] = 0;
+		if (distance[i] > 0
+			&& range[atk] > 0
+			&& minDistanceToShoot(atk, def, i) > 0
+			&& !meleeShot[atk])
+		{
+			oneTurnRanged(atk, def, i);
+		}
+		else {
+			oneTurnMelee(atk, def, i);
+		}
+		checkMoraleEndTurn(def, i);
+		if (regenerates[def]) {
+			damageTaken[def][i] -= Math.min(figures[def][i], damageTaken[def][i]);
+		}
+	}
+
+	/**
+		Play out one turn for melee troops.
+	*/
+	private void oneTurnMelee(int atk, int def, int i) {
+		int distMoved = 0;
+
+		// Charge to contact
+		if (distance[i] > 0) {
+			distMoved = moveSeekRange(atk, def, i, 0, true);
+		}
+
+		// Expand frontage if useful
+		if (distance[i] == 0 && distMoved == 0) {
+			if (getRanks(atk, i) > 1
+				&& getTotalWidth(atk, i) < getPerimeter(def, i))
+			{
+				files[atk][i] = Math.min(files[atk][i] + 6, figures[atk][i]);
+			}
+		}
+
+		// Attack if in contact
+		if (distance[i] == 0) {
+			meleeAttack(atk, def, i, false);
+			if (bothSidesLive(i)
+				&& meleeShot[atk]
+				&& minDistanceToShoot(atk, def, i) > 0
+				&& distMoved <= getMove(atk, i) / 2)
+			{
+				rangedAttack(atk, def, i, false);
+			}
+			priorContact[i] = true;
+		}
+	}
+
+	/**
+		Play out one turn for ranged troops.
+	*/
+	private void oneTurnRanged(int atk, int def, int i) {
+		int distMoved = 0;
+
+		// Check relative firing ranges
+		int minShotDist = minDistanceToShoot(atk, def, i);
+		int minShotDistEnemy = minDistanceToShoot(def, atk, i);
+		boolean outranged = minShotDist < minShotDistEnemy;
+
+		// Move to shooting distance
+		if (distance[i] > minShotDist) {
+			distMoved = moveSeekRange(atk, def, i, minShotDist, outranged);
+		}
+
+		// Fire if permitted
+		if (distance[i] <= minShotDist) {
+			if (distMoved == 0) {
+				rangedAttack(atk, def, i, true);
+			}
+			else if (distMoved <= getMove(atk, i) / 2) {
+				rangedAttack(atk, def, i, false);
+				if (splitMove[atk] && !outranged) {
+					distance[i] += getMove(atk, i) / 4;
+				}
+			}
+		}
+	}
+
+	/**
+		Move attacker forward, seeking goal distance.
+		@return distance actually moved.
+	*/
+	private int moveSeekRange(
+		int atk, int def, int i, int goalDist, boolean fullSpeed)
+	{
+		int maxMove = getMove(atk, i);
+		if (!fullSpeed && maxMove > 1) {
+			maxMove /= 2;
+		}
+		int moveDist = Math.min(distance[i] - goalDist, maxMove);
+		distance[i] -= moveDist;
+		checkVision(atk, def, i);
+		checkVision(def, atk, i);
+		if (distance[i] == 0 && pikes[def]) {
+			checkPikeInterrupt(atk, def, i);
+		}
+		return moveDist;
+	}
+
+	/**
+		Check for pikes interrupt attack on defense.
+	*/
+	private void checkPikeInterrupt(int atk, int def, int i) {
+		if (bothSidesLive(i)
+			&& terrain[i] == OPEN
+			&& weather[i] != RAINY
+			&& !priorContact[i]
+			&& !(random.nextDouble() < BookOfWar.PIKE_FLANK_CHANCE)
+			&& !getsRearAttack(atk, i))
+		{
+			figsLostInTurn[atk][i] = 0;
+			meleeAttack(def, atk, i, true);
+			checkMoraleEndTurn(atk, i);
+		}
+	}
+
+	/**
+		Play out one melee attack.
+	*/
+	private void meleeAttack(int atk, int def, int i, boolean pikesInterrupt) {
+		if (!bothSidesLive(i) || attacks[atk] == 0) {
+			return;
+		}
+
+		// Count attacking figures
+		int figsAtk = countFiguresInContact(atk, def, i);
+		if (figsAtk == 0 || !visible[def][i]) {
+			return;
+		}
+
+		// Count attack dice
+		int numDice = figsAtk * attacks[atk];
+		if ((mounts[atk] || pikes[atk])
+			&& (terrain[i] != OPEN || weather[i] == RAINY))
+		{
+			numDice /= 2;
+		}
+		numDice = Math.max(numDice, 1);
+
+		// Roll & apply damage
+		int atkBonus = baseAtk[atk] + meleeBonus[atk][weather[i]]
+			+ (getsRearAttack(atk, i) ? 1 : 0);
+		int numHits = dice.countHits(numDice, armor[def] - atkBonus);
+		int damageTotal = numHits * meleeDamage[atk];
+		if (pikesInterrupt) {
+			damageTotal *= 2;
+		}
+		if (damageBonus[atk]) {
+			damageTotal += damageTotal / 2;
+		}
+		takeDamage(def, i, damageTotal);
+		visible[atk][i] = true;
+	}
+
+	/**
+		Play out one ranged attack.
+	*/
+	private void rangedAttack(int atk, int def, int i, boolean fullRate) {
+		if (!visible[def][i]) {
+			return;
+		}
+		int rangeMod = distance[i] <= range[atk] / 2 ? 0 : -1;
+		int numDice = figures[atk][i] * rate[atk];
+		if (!fullRate) {
+			numDice /= 2;
+		}
+		int atkBonus = baseAtk[atk] + rangedBonus[atk][weather[i]] + rangeMod;
+		int numHits = dice.countHits(numDice, armor[def] - atkBonus);
+		takeDamage(def, i, numHits * rangedDamage[atk]);
+		visible[atk][i] = true;
+	}
+
+	/**
+		Check morale at end of turn.
+	*/
+	private void checkMoraleEndTurn(int side, int i) {
+		int lost = figsLostInTurn[side][i];
+		if (lost > 0 && !fearless[side] && !isBeaten(side, i)) {
+			int rateOfLoss = figures[side][i] / lost;
+			int roll = dice.roll2d6();
+			int total = roll + rateOfLoss + moraleBonus[side][weather[i]];
+			if (total < BookOfWar.MORALE_TARGET) {
+				routed[side][i] = true;
+				removeFigures(side, i, figures[side][i]);
+			}
+		}
+	}
+
+	/**
+		Take damage and remove killed figures.
+	*/
+	private void takeDamage(int side, int i, int points) {
+		int taken = damageTaken[side][i] + points;
+		damageTaken[side][i] = taken % health[side];
+		removeFigures(side, i, taken / health[side]);
+	}
+
+	/**
+		Remove a number of figures (capped by number in unit).
+	*/
+	private void removeFigures(int side, int i, int lost) {
+		lost = Math.min(lost, figures[side][i]);
+		figures[side][i] -= lost;
+		figsLostInTurn[side][i] += lost;
+		if (figures[side][i] < files[side][i]) {
+			files[side][i] = figures[side][i];
+		}
+	}
+
+	/**
+		Check for one side spotting the other.
+	*/
+	private void checkVision(int spotter, int target, int i) {
+		if (!visible[target][i] && detection[spotter] >= distance[i]) {
+			visible[target][i] = true;
+		}
+	}
+
+	//----------------------------------------------------------------------
+	//  Helper methods (one lane)
+	//----------------------------------------------------------------------
+
+	/**
+		Is one side beaten?
+	*/
+	private boolean isBeaten(int side, int i) {
+		return figures[side][i] == 0 || routed[side][i];
+	}
+
+	/**
+		Do both sides still live?
+	*/
+	private boolean bothSidesLive(int i) {
+		return !isBeaten(0, i) && !isBeaten(1, i);
+	}
+
+	/**
+		Get move for a side in its lane conditions.
+	*/
+	private int getMove(int side, int i) {
+		return moveTable[side][terrain[i]][weather[i]];
+	}
+
+	/**
+		Find minimum distance to have any chance of shooting enemy.
+	*/
+	private int minDistanceToShoot(int atk, int def, int i) {
+		if (terrain[i] == WOODS || terrain[i] == GULLEY || !visible[def][i]) {
+			return 0;
+		}
+		return minShotTable[atk][weather[i]];
+	}
+
+	/**
+		Is this a case where we get the melee rear attack bonus?
+	*/
+	private boolean getsRearAttack(int atk, int i) {
+		return flyMove[atk] >= 30 || (flight[atk] && !priorContact[i]);
+	}
+
+	/**
+		Compute effective ranks (as in Unit.getRanks).
+	*/
+	private int getRanks(int side, int i) {
+		int f = files[side][i];
+		if (f < 1) {
+			return 0;
+		}
+		int figs = figures[side][i];
+		int ranks = figs / f;
+		if ((figs % f) * 2 >= f) {
+			ranks++;
+		}
+		return ranks;
+	}
+
+	/**
+		Compute total width in quarter-inch units.
+	*/
+	private int getTotalWidth(int side, int i) {
+		return files[side][i] * figWidth[side];
+	}
+
+	/**
+		Compute perimeter in quarter-inch units.
+	*/
+	private int getPerimeter(int side, int i) {
+		return 2 * (getTotalWidth(side, i)
+			+ getRanks(side, i) * figLength[side]);
+	}
+
+	/**
+		Compute number of attacking figures in contact.
+	*/
+	private int countFiguresInContact(int atk, int def, int i) {
+		int atkWidth = getTotalWidth(atk, i);
+		int defWidth = priorContact[i]
+			? getPerimeter(def, i) : getTotalWidth(def, i);
+		return atkWidth <= defWidth ? files[atk][i]
+			: (defWidth + figWidth[atk] - 1) / figWidth[atk];
+	}
+}
@@ -1,8 +1,27 @@
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Random;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntToDoubleFunction;
+import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException; 
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
 
 /**
 	Book of War simulation for cost-balancing purposes.
@@ -21,11 +40,14 @@ public class BookOfWar {
 	
 	/** Mode of simulation to perform. */
 	enum SimMode { ZoomInGame, TableAssess, AutoBalance, 
-		FullBalance, EmbedBalance };
+		FullBalance, EmbedBalance, WatchAssess, Daemon, MergeResults };
 						
 	/** Energy special attack types. */
 	enum EnergyType { Fire, Volt, Acid, Cold, Poison, Multi };
 
+	/** Result of one game for the first unit. */
+	enum GameResult { Win, Loss, Draw };
+
 	//-----------------------------------------------------------------
 	//  Filename constants
 	//-----------------------------------------------------------------
@@ -46,6 +68,12 @@ public class BookOfWar {
 	/** Default simulation mode. */
 	private static final SimMode DEFAULT_SIM_MODE = SimMode.TableAssess;
 
+	/** Default local port for daemon mode. */
+	private static final int DEFAULT_DAEMON_PORT = 7557;
+
+	/** Most series segments held in memory by the daemon. */
+	private static final int DAEMON_CACHE_SEGMENTS = 100000;
+
 	//-----------------------------------------------------------------
 	//  Constant fields
 	//-----------------------------------------------------------------
@@ -60,19 +88,19 @@ public class BookOfWar {
 	private static final int COST_LIMIT = 999;
 
 	/** Balances swords vs. pikes & cavalry (basis 1.00). */
-	private static final double TERRAIN_MULTIPLIER = 1.00;
+	static final double TERRAIN_MULTIPLIER = 1.00;
 
 	/** Balances pikes vs. swords & cavalry (basis 0.20). */
-	private static final double PIKE_FLANK_CHANCE = 0.30;
+	static final double PIKE_FLANK_CHANCE = 0.30;
 
 	/** Limit per-hit damage by target's health? */
-	private static final boolean CAP_DAMAGE_BY_HEALTH = false;
+	static final boolean CAP_DAMAGE_BY_HEALTH = false;
 
 	/** Buy silver weapons for all troop types? */
 	private static final boolean USE_SILVER_WEAPONS = false;
 	
 	/** Target for morale check success (per Vol-1, p. 12). */
-	private static final int MORALE_TARGET = 9;
+	static final int MORALE_TARGET = 9;
 
 	/** Range for magic wand missile attacks. */
 	private static final int WAND_RANGE = 24;
@@ -88,17 +116,48 @@ public class BookOfWar {
 	
 	/** Chance wizard has useful hill in range. */
 	private static final double CHANCE_HILL_NEARBY = 0.25;
+
+	/** Rounds with no progress before a game is called a stalemate. */
+	static final int STALL_ROUND_LIMIT = 50;
+
+	/** Hard cap on rounds in one game (called a draw). */
+	static final int MAX_ROUNDS_PER_GAME = 500;
+
+	/** Odd multiplier for mixing values into a progress mark. */
+	private static final long PROGRESS_MARK_PRIME = 0x9E3779B97F4A7C15L;
+
+	/** Trials per chunk when splitting a series across workers. */
+	private static final int SERIES_CHUNK_TRIALS = 2000;
+
+	/** Version of game engine (change if rules code changes results). */
+	static final int ENGINE_VERSION = 1;
+
+	/** Milliseconds between checks of unit files in watch mode. */
+	private static final int WATCH_POLL_MILLIS = 500;
+
+	/** Figure plan value for games with figures bought by budget. */
+	static final long NO_FIGURE_PLAN = -1L;
+
+	/** Number of worker threads (one per processor core). */
+	private static final int WORKER_THREADS
+		= Runtime.getRuntime().availableProcessors();
 	
 	//-----------------------------------------------------------------
 	//  Out-of-game settings
 	//-----------------------------------------------------------------
 
-	/** Random number generator. */
-	private Random random;
+	/** Observer of in-game events. */
+	private GameObserver observer;
 
 	/** Mode of action for simulator. */
 	private SimMode simMode;
 
+	/** Packed catalog of all unit types loaded. */
+	private PackedCatalog catalog;
+
+	/** Attribute index over unit lists (or null until needed). */
+	private UnitIndex unitIndex;
+
 	/** List of basic unit types. */
 	private List<Unit> unitList;
 
@@ -117,6 +176,12 @@ public class BookOfWar {
 	/** Chief unit set for embed balancing (solo types 1 to n). */
 	private int chiefUnitNum;
 
+	/** Selector for assessed units (or null; see UnitIndex). */
+	private String assessSelector;
+
+	/** Selector for base units (or null; see UnitIndex). */
+	private String baseSelector;
+
 	/** Number of trials per matchup. */
 	private int trialsPerMatchup;
 
@@ -135,27 +200,62 @@ public class BookOfWar {
 	/** Print results table in CSV format? */
 	private boolean printFormatCSV;
 
+	/** Play supported matchups in the lockstep batch engine? */
+	private boolean useBatchEngine;
+
+	/** Print series diagnostics after assessment table? */
+	private boolean printDiagnostics;
+
+	/** Number of budget bins for win curves after assessment table. */
+	private int budgetBins;
+
+	/** Local port for daemon mode. */
+	private int daemonPort;
+
+	/** File for memory-mapped assessment results (or null). */
+	private String resultMatrixFile;
+
+	/** File for persistent series result cache (or null). */
+	private String resultCacheFile;
+
+	/** Result cache files to merge (comma-separated, or null). */
+	private String mergeFiles;
+
+	/** Cache of series results (or null if not in use). */
+	private ResultCache resultCache;
+
+	/** Cache of game results by figure counts (or null if not in use). */
+	private FigureCache figureCache;
+
+	/** Base for series seeds in this run. */
+	private long baseSeed = new Random().nextLong();
+
+	/** Number of series seeds handed out so far. */
+	private long seriesCount;
+
 	/** Flag to escape after startup procedures. */
 	private boolean exitAfterStartup;
-	
-	//-----------------------------------------------------------------
-	//  In-game variables
-	//-----------------------------------------------------------------
 
-	/** Distance between opposing units. */
-	private int distance;
+	/** Count of drawn games in dockets played so far. */
+	private long drawnGames;
 
-	/** Weather category for battle. */
-	private Weather weather;
+	/** Worker simulators, one per pool thread (sharing our settings). */
+	private ThreadLocal<BookOfWar> workerSims = newWorkerSims();
 
-	/** Uniform terrain for battle. */
-	private Terrain terrain;
+	/** Pool of worker threads, one per processor core. */
+	private static final ExecutorService WORKER_POOL
+		= Executors.newFixedThreadPool(WORKER_THREADS, r -> {
+				Thread t = new Thread(r);
+				t.setDaemon(true);
+				return t;
+			});
 	
-	/** Are the units already in contact? */
-	private boolean priorContact;
+	//-----------------------------------------------------------------
+	//  In-game variables
+	//-----------------------------------------------------------------
 
-	/** Are pikes making an interrupting defense now? */
-	private boolean pikesInterrupt;
+	/** State of the game in progress (owned by this simulator). */
+	private GameState game;
 
 	//-----------------------------------------------------------------
 	//  Constructor(s)
@@ -165,35 +265,47 @@ public class BookOfWar {
 		Constructor for the simulator.
 	*/
 	public BookOfWar() {
-		random = new Random();
+		game = new GameState();
+		observer = GameObserver.NONE;
 		simMode = DEFAULT_SIM_MODE;
 		trialsPerMatchup = DEFAULT_TRIALS_PER_MATCHUP;
 		budgetMin = BUDGET_MIN_DEFAULT;
 		budgetMax = BUDGET_MAX_DEFAULT;
+		budgetBins = 1;
+		daemonPort = DEFAULT_DAEMON_PORT;
+		catalog = new PackedCatalog();
 		loadBasicUnits();
 		loadSoloUnits();
 	}
 
 	/**
 		Copy constructor.
-		Copies only out-of-game setings.
+		Copies only out-of-game settings (used for worker threads).
 	*/
 	public BookOfWar(BookOfWar src) {
-		random = new Random();			
+		game = new GameState();
+		observer = GameObserver.NONE;
 		simMode = src.simMode;
 		budgetMin = src.budgetMin;
 		budgetMax = src.budgetMax;
+		catalog = src.catalog;
 		unitList = src.unitList;
 		soloList = src.soloList;
 		assessUnitNum = src.assessUnitNum;
 		baseUnitNum = src.baseUnitNum;
 		chiefUnitNum = src.chiefUnitNum;
+		assessSelector = src.assessSelector;
+		baseSelector = src.baseSelector;
 		trialsPerMatchup = src.trialsPerMatchup;
 		zoomGameUnit1 = src.zoomGameUnit1;
 		zoomGameUnit2 = src.zoomGameUnit2;
 		zoomGameChief = src.zoomGameChief;
 		usePreferredValues = src.usePreferredValues;
 		printFormatCSV = src.printFormatCSV;
+		useBatchEngine = src.useBatchEngine;
+		printDiagnostics = src.printDiagnostics;
+		budgetBins = src.budgetBins;
+		daemonPort = src.daemonPort;
 		exitAfterStartup = src.exitAfterStartup;
 	}
 
@@ -228,13 +340,33 @@ public class BookOfWar {
 		System.out.println("\t-a assess up to the nth unit in database");
 		System.out.println("\t-b use first n units as base for comparisons");
 		System.out.println("\t-c use first n solos as unit leader chiefs");
+		System.out.println("\t-A=sel select assessed units by attributes");
+		System.out.println("\t-B=sel select base units by attributes\n"
+			+ "\t\t (terms: special type, lawful/neutral/chaotic,\n"
+			+ "\t\t missile, melee, basic, solo, cost=lo-hi, all;\n"
+			+ "\t\t '+' joins terms, ',' separates choices, '!' negates;\n"
+			+ "\t\t applies to modes 1 and 2; mode 2 needs both,\n"
+			+ "\t\t with no unit in both)");
+		System.out.println("\t-d print series diagnostics with assessment");
+		System.out.println("\t-e share results by figure counts in balancers");
+		System.out.println("\t-i=files merge result cache files "
+			+ "(comma-separated; mode 7)");
+		System.out.println("\t-k=file reuse & save series results in cache file");
+		System.out.println("\t-l use lockstep batch engine where supported");
 		System.out.println("\t-m sim mode (0 = zoom-in game, 1 = table-asses,\n"
 			+ "\t\t 2 = base auto-balance, 3 = full auto-balance,\n"
-			+ "\t\t 4 = balance solo embeds");
+			+ "\t\t 4 = balance solo embeds, 5 = watch files & re-assess,\n"
+			+ "\t\t 6 = daemon serving requests on local port,\n"
+			+ "\t\t 7 = merge result caches & assess from them");
+		System.out.println("\t-o=n port for daemon mode (default=" 
+			+ DEFAULT_DAEMON_PORT + ")");
 		System.out.println("\t-p use preferred values in full auto-balancer");
+		System.out.println("\t-r=file accumulate assessment table in file");
 		System.out.println("\t-s balance the solo vs. basic unit types");
 		System.out.println("\t-t trials per matchup (default=" 
 			+ DEFAULT_TRIALS_PER_MATCHUP + ")");
+		System.out.println("\t-u=n print win curves in n budget bins "
+			+ "with assessment");
 		System.out.println("\t-v print assessment table in CSV format");
 		System.out.println("\t-x zoom-in game chief solo index (1-based)");
 		System.out.println("\t-y zoom-in game 1st unit index (1-based)");
@@ -249,13 +381,23 @@ public class BookOfWar {
 		for (String s: args) {
 			if (s.charAt(0) == '-') {
 				switch (s.charAt(1)) {
+					case 'A': assessSelector = getParamString(s); break;
+					case 'B': baseSelector = getParamString(s); break;
 					case 'a': assessUnitNum = getParamInt(s); break;
 					case 'b': baseUnitNum = getParamInt(s); break;
 					case 'c': chiefUnitNum = getParamInt(s); break;
+					case 'd': printDiagnostics = true; break;
+					case 'e': figureCache = new FigureCache(); break;
+					case 'i': mergeFiles = getParamString(s); break;
+					case 'k': resultCacheFile = getParamString(s); break;
+					case 'l': useBatchEngine = true; break;
 					case 'm': parseSimMode(s); break;
+					case 'o': daemonPort = getParamInt(s); break;
 					case 'p': usePreferredValues = true; break;					
+					case 'r': resultMatrixFile = getParamString(s); break;
 					case 's': soloBalancing = true; break;
 					case 't': trialsPerMatchup = getParamInt(s); break;
+					case 'u': budgetBins = getParamInt(s); break;
 					case 'v': printFormatCSV = true; break;
 					case 'x': zoomGameChief = getParamInt(s); break;
 					case 'y': zoomGameUnit1 = getParamInt(s); break;
@@ -285,6 +427,18 @@ public class BookOfWar {
 		return -1;
 	}
 
+	/**
+		Get string following equals sign in command parameter.
+	*/
+	private String getParamString(String s) {
+		if (s.length() > 3 && s.charAt(2) == '=') {
+			return s.substring(3);
+		}
+		System.err.println("Error: Could not read string argument: " + s);
+		exitAfterStartup = true;
+		return null;
+	}
+
 	/**
 		Parse the simulation mode.
 	*/
@@ -296,6 +450,9 @@ public class BookOfWar {
 			case 2: simMode = SimMode.AutoBalance; break;
 			case 3: simMode = SimMode.FullBalance; break;
 			case 4: simMode = SimMode.EmbedBalance; break;
+			case 5: simMode = SimMode.WatchAssess; break;
+			case 6: simMode = SimMode.Daemon; break;
+			case 7: simMode = SimMode.MergeResults; break;
 			default: System.err.println("Error: Unknown sim mode.");
 				exitAfterStartup = true; 
 		}
@@ -306,14 +463,16 @@ public class BookOfWar {
 	*/
 	private void loadBasicUnits() {
 		try {
-			String[][] table = CSVReader.readFile(BASIC_UNIT_FILE);
-			unitList = new ArrayList<Unit>(table.length - 1);
-			for (int i = 1; i < table.length; i++) {
-				unitList.add(new Unit(table[i]));
+			int first = catalog.size();
+			int count = catalog.readFile(BASIC_UNIT_FILE, false);
+			unitList = new ArrayList<Unit>(count);
+			for (int i = first; i < first + count; i++) {
+				unitList.add(catalog.newUnit(i));
 			}
 		}
 		catch (IOException e) {
-			System.err.println("Could not read basic unit type list.");
+			System.err.println("Could not read basic unit type list: "
+				+ e.getMessage());
 			exitAfterStartup = true;		
 		}
 	}
@@ -323,18 +482,62 @@ public class BookOfWar {
 	*/
 	private void loadSoloUnits() {
 		try {
-			String[][] table = CSVReader.readFile(SOLO_UNIT_FILE);
-			soloList = new ArrayList<Solo>(table.length - 1);
-			for (int i = 1; i < table.length; i++) {
-				soloList.add(new Solo(table[i]));
+			int first = catalog.size();
+			int count = catalog.readFile(SOLO_UNIT_FILE, true);
+			soloList = new ArrayList<Solo>(count);
+			for (int i = first; i < first + count; i++) {
+				soloList.add(new Solo(catalog.getType(i)));
 			}
 		}
 		catch (IOException e) {
-			System.err.println("Could not read solo unit type list.");
+			System.err.println("Could not read solo unit type list: "
+				+ e.getMessage());
 			exitAfterStartup = true;		
 		}
 	}
 
+	/**
+		Read the unit files again into a new catalog.
+		On any error, keeps the units already loaded. If the assessed
+		set was the whole file, it follows the file's new length.
+		@return true if the new units were loaded.
+	*/
+	private boolean reloadUnits() {
+		PackedCatalog oldCatalog = catalog;
+		List<Unit> oldUnits = unitList;
+		List<Solo> oldSolos = soloList;
+		int oldAssessUnitNum = assessUnitNum;
+		if (assessUnitNum == (soloBalancing ? soloList.size() 
+			: unitList.size()))
+		{
+			assessUnitNum = 0;
+		}
+		catalog = new PackedCatalog();
+		unitIndex = null;
+		try {
+			loadBasicUnits();
+			loadSoloUnits();
+		}
+		catch (RuntimeException e) {
+			postStartupFailMsg("Could not parse unit types: " 
+				+ e.getMessage());
+		}
+		if (!exitAfterStartup) {
+			checkArgUnitNums();
+		}
+		if (exitAfterStartup) {
+			catalog = oldCatalog;
+			unitList = oldUnits;
+			soloList = oldSolos;
+			assessUnitNum = oldAssessUnitNum;
+			unitIndex = null;
+			exitAfterStartup = false;
+			return false;
+		}
+		workerSims = newWorkerSims();
+		return true;
+	}
+
 	/**
 		Post a startup failure message.
 	*/
@@ -393,6 +596,75 @@ public class BookOfWar {
 			postStartupFailMsg("Error: Chief unit set must be "
 				+ "no more than database size (fix -c switch).");
 		}
+
+		// Check unit selectors
+		checkSelector(assessSelector, "-A");
+		checkSelector(baseSelector, "-B");
+		if (simMode == SimMode.AutoBalance && !exitAfterStartup) {
+			checkBalanceSelectors();
+		}
+	}
+
+	/**
+		Check selectors for the base auto-balancer.
+		Needs both or neither; and as assessed units have their costs
+		changed while base units serve as fixed opponents, no unit 
+		may be in both selections.
+	*/
+	private void checkBalanceSelectors() {
+		if ((assessSelector == null) != (baseSelector == null)) {
+			postStartupFailMsg("Error: Auto-balance needs both -A and -B "
+				+ "selectors, or neither (fix -A or -B switch).");
+		}
+		else if (assessSelector != null) {
+			Set<Unit> assessUnits 
+				= Collections.newSetFromMap(new IdentityHashMap<Unit, Boolean>());
+			assessUnits.addAll(selectUnits(assessSelector, null));
+			for (Unit unit: selectUnits(baseSelector, null)) {
+				if (assessUnits.contains(unit)) {
+					postStartupFailMsg("Error: " + unit.getName() 
+						+ " is in both assessed and base selections "
+						+ "(fix -A or -B switch).");
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+		Check that a unit selector is valid and matches some unit.
+	*/
+	private void checkSelector(String selector, String switchName) {
+		if (selector != null) {
+			try {
+				if (getUnitIndex().selectUnits(selector).isEmpty()) {
+					postStartupFailMsg("Error: No units match selector "
+						+ "(fix " + switchName + " switch).");
+				}
+			}
+			catch (IllegalArgumentException e) {
+				postStartupFailMsg("Error: " + e.getMessage()
+					+ " (fix " + switchName + " switch).");
+			}
+		}
+	}
+
+	/**
+		Get attribute index over all units (built on first use).
+	*/
+	private UnitIndex getUnitIndex() {
+		if (unitIndex == null) {
+			unitIndex = new UnitIndex(unitList, soloList);
+		}
+		return unitIndex;
+	}
+
+	/**
+		Get units for a selector, or a default list if none.
+	*/
+	private List<Unit> selectUnits(String selector, List<Unit> defaultList) {
+		return selector == null ? defaultList 
+			: getUnitIndex().selectUnits(selector);
 	}
 	
 	/**
@@ -431,21 +703,107 @@ public class BookOfWar {
 		Run the simulator in selected mode.
 	*/
 	private void run() {
+		if (resultCacheFile != null && !openResultCache()) {
+			return;
+		}
  		switch (simMode) {
  			case ZoomInGame: zoomInGame(); break;
  			case TableAssess: assessmentTable(); break;
+			case WatchAssess: watchAssessment(); break;
+			case Daemon: runDaemon(); break;
+			case MergeResults: mergeResults(); break;
  			case AutoBalance: autoBalancer(); break;
 			case FullBalance: fullAutoBalancer(); break;
 			case EmbedBalance: embedBalancer(); break;
 			default: System.err.println("Unknown simulation mode"); break;
  		}
+		if (resultCache != null) {
+			closeResultCache();
+		}
+		if (figureCache != null && figureCache.getLookups() > 0) {
+			printf("Figure cache: " 
+				+ (figureCache.getLookups() - figureCache.getMisses()) 
+				+ " reused, " + figureCache.getMisses() + " played, "
+				+ figureCache.size() + " cells\n");
+		}
+	}
+
+	/**
+		Load the series result cache file.
+		A file that cannot be used stops the run, so that saving at 
+		the end never overwrites results that were not loaded.
+		@return true if cache is ready for use.
+	*/
+	private boolean openResultCache() {
+		try {
+			resultCache = ResultCache.load(resultCacheFile, 
+				getRulesFingerprint());
+			return true;
+		}
+		catch (IOException e) {
+			System.err.println("Could not read result cache: " 
+				+ e.getMessage());
+			System.err.println("Not running (so as not to overwrite it); "
+				+ "remove it or name another -k file.");
+			return false;
+		}
+	}
+
+	/**
+		Save the series result cache file & report its use.
+	*/
+	private void closeResultCache() {
+		if (resultCacheFile != null) {
+			try {
+				resultCache.save(resultCacheFile);
+			}
+			catch (IOException e) {
+				System.err.println("Could not save result cache: " 
+					+ e.getMessage());
+			}
+		}
+		if (resultCache.getHits() + resultCache.getMisses() > 0) {
+			printf("Result cache: " + resultCache.getHits() + " reused, " 
+				+ resultCache.getMisses() + " played, " 
+				+ resultCache.size() + " stored\n");
+		}
+	}
+
+	/**
+		Get a fingerprint of the rules that affect game results.
+		Covers engine version, rules constants, and the default
+		controller added to units that need one.
+	*/
+	private long getRulesFingerprint() {
+		long h = Fingerprint.add(Fingerprint.START, ENGINE_VERSION);
+		h = Fingerprint.add(h, Double.doubleToLongBits(TERRAIN_MULTIPLIER));
+		h = Fingerprint.add(h, Double.doubleToLongBits(PIKE_FLANK_CHANCE));
+		h = Fingerprint.add(h, Double.doubleToLongBits(CHANCE_HILL_NEARBY));
+		h = Fingerprint.add(h, CAP_DAMAGE_BY_HEALTH ? 1 : 0);
+		h = Fingerprint.add(h, USE_SILVER_WEAPONS ? 1 : 0);
+		int[] constants = {MORALE_TARGET, WAND_RANGE, DEATH_SPELL_DAMAGE,
+			CONTROL_WEATHER_STEPS, STALL_ROUND_LIMIT, MAX_ROUNDS_PER_GAME};
+		for (int constant: constants) {
+			h = Fingerprint.add(h, constant);
+		}
+		if (soloList.size() >= DEFAULT_CONTROLLER) {
+			h = Fingerprint.add(h, 
+				soloList.get(DEFAULT_CONTROLLER - 1).getFingerprint());
+		}
+		return h;
 	}
 
 	/**
 		Create table of assessed win percents.
 	*/
 	private void assessmentTable() {
-		if (!soloBalancing) {
+		if (assessSelector != null || baseSelector != null) {
+			List<Unit> assessUnits = selectUnits(assessSelector, 
+				unitList.subList(0, assessUnitNum));
+			List<Unit> baseUnits = selectUnits(baseSelector, assessUnits);
+			makeAssessmentTable(assessUnits, baseUnits);
+		}
+		else if (!soloBalancing) {
 			List<Unit> assessUnits = unitList.subList(0, assessUnitNum);
 			makeAssessmentTable(assessUnits, assessUnits);
 		}
@@ -459,11 +817,335 @@ public class BookOfWar {
 		}
 	}
 
+	/**
+		Watch the unit files & reprint the assessment table on change.
+		Series results are held in a result cache (in memory, or the 
+		-k file) keyed by unit fingerprints, so after an edit only the
+		rows & columns of added or changed units are played again.
+		Runs until killed.
+	*/
+	private void watchAssessment() {
+		if (resultCache == null) {
+			resultCache = new ResultCache(getRulesFingerprint());
+		}
+		Map<String, Long> fingerprints = getUnitFingerprints();
+		long stamp = getUnitFilesStamp();
+		while (true) {
+			drawnGames = 0;
+			resultCache.resetCounts();
+			assessmentTable();
+			closeResultCache();
+			printf("\nWatching " + BASIC_UNIT_FILE + " & " + SOLO_UNIT_FILE
+				+ " for changes...\n");
+
+			// Wait for a change that has settled & loads cleanly
+			do {
+				try {
+					stamp = waitForUnitFiles(stamp);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			} while (!reloadUnits());
+
+			// Report changes (new rules start a new cache)
+			Map<String, Long> newFingerprints = getUnitFingerprints();
+			printUnitChanges(fingerprints, newFingerprints);
+			fingerprints = newFingerprints;
+			if (resultCache.getRulesKey() != getRulesFingerprint()) {
+				printf("Rules changed; replaying all matchups.\n");
+				resultCache = new ResultCache(getRulesFingerprint());
+			}
+		}
+	}
+
+	/**
+		Wait until the unit files change & then hold still for a poll.
+		@param stamp stamp of files as last read.
+		@return stamp of files after the change.
+	*/
+	private long waitForUnitFiles(long stamp) throws InterruptedException {
+		long newStamp = stamp;
+		long lastStamp;
+		do {
+			lastStamp = newStamp;
+			Thread.sleep(WATCH_POLL_MILLIS);
+			newStamp = getUnitFilesStamp();
+		} while (newStamp == stamp || newStamp != lastStamp);
+		return newStamp;
+	}
+
+	/**
+		Get a stamp of the unit files' modified times & lengths.
+	*/
+	private long getUnitFilesStamp() {
+		long h = Fingerprint.START;
+		for (String name: new String[] {BASIC_UNIT_FILE, SOLO_UNIT_FILE}) {
+			File file = new File(name);
+			h = Fingerprint.add(h, file.lastModified());
+			h = Fingerprint.add(h, file.length());
+		}
+		return h;
+	}
+
+	/**
+		Get fingerprints of all loaded units by name.
+	*/
+	private Map<String, Long> getUnitFingerprints() {
+		Map<String, Long> map = new LinkedHashMap<String, Long>();
+		for (Unit unit: unitList) {
+			map.put(unit.getName(), unit.getFingerprint());
+		}
+		for (Unit unit: soloList) {
+			map.put(unit.getName(), unit.getFingerprint());
+		}
+		return map;
+	}
+
+	/**
+		Print units added, changed, or removed between two loads.
+	*/
+	private void printUnitChanges(Map<String, Long> before, 
+		Map<String, Long> after)
+	{
+		List<String> added = new ArrayList<String>();
+		List<String> changed = new ArrayList<String>();
+		List<String> removed = new ArrayList<String>();
+		for (Map.Entry<String, Long> entry: after.entrySet()) {
+			Long old = before.get(entry.getKey());
+			if (old == null) {
+				added.add(entry.getKey());
+			}
+			else if (!old.equals(entry.getValue())) {
+				changed.add(entry.getKey());
+			}
+		}
+		for (String name: before.keySet()) {
+			if (!after.containsKey(name)) {
+				removed.add(name);
+			}
+		}
+		printf("\nUnits added: " + added + "\n");
+		printf("Units changed: " + changed + "\n");
+		printf("Units removed: " + removed + "\n\n");
+	}
+
+	/**
+		Merge result cache files from other runs or machines (into
+		the -k file, if any), then print the assessment table from the
+		merged results alone, playing no new games. Cells with no 
+		merged results are left empty.
+	*/
+	private void mergeResults() {
+		if (mergeFiles == null) {
+			System.err.println("Error: No result caches to merge "
+				+ "(use -i switch).");
+			return;
+		}
+		if (resultCache == null) {
+			resultCache = new ResultCache(getRulesFingerprint());
+		}
+		for (String filename: mergeFiles.split(",")) {
+			if (!new File(filename).exists()) {
+				System.err.println("No such result cache: " + filename);
+				continue;
+			}
+			try {
+				ResultCache other = ResultCache.load(filename, 
+					getRulesFingerprint());
+				int added = resultCache.merge(other);
+				printf("Merged " + filename + ": " + added + " new series, "
+					+ (other.countSegments() - added) + " already held\n");
+			}
+			catch (IOException e) {
+				System.err.println("Could not read result cache: " 
+					+ e.getMessage());
+			}
+		}
+		printf("\n");
+		trialsPerMatchup = 0;
+		assessmentTable();
+	}
+
+	/**
+		Serve what-if requests on a local socket until shut down.
+		Keeps units, caches & compiled code warm between requests,
+		with series results held in a bounded LRU result cache (or 
+		the -k file cache). Each request is one line of fields split
+		by '|' & gets one line in reply (see answerRequest); "quit"
+		ends a connection & "shutdown" ends the daemon.
+	*/
+	private void runDaemon() {
+		if (resultCache == null) {
+			resultCache = new ResultCache(getRulesFingerprint(), 
+				DAEMON_CACHE_SEGMENTS);
+		}
+		try (ServerSocket server = new ServerSocket(daemonPort, 0,
+			InetAddress.getLoopbackAddress()))
+		{
+			printf("Daemon listening on port " + server.getLocalPort() 
+				+ "...\n");
+			boolean running = true;
+			while (running) {
+				try (Socket socket = server.accept();
+					BufferedReader in = new BufferedReader(
+						new InputStreamReader(socket.getInputStream(), "UTF-8"));
+					PrintWriter out = new PrintWriter(new OutputStreamWriter(
+						socket.getOutputStream(), "UTF-8"), true))
+				{
+					String line;
+					while ((line = in.readLine()) != null) {
+						String request = line.trim();
+						if (request.equalsIgnoreCase("quit")) {
+							break;
+						}
+						if (request.equalsIgnoreCase("shutdown")) {
+							running = false;
+							break;
+						}
+						out.println(answerRequest(request));
+					}
+				}
+				catch (IOException e) {
+					System.err.println("Daemon connection failed: " 
+						+ e.getMessage());
+				}
+			}
+		}
+		catch (IOException e) {
+			System.err.println("Could not open daemon socket: " 
+				+ e.getMessage());
+		}
+	}
+
+	/**
+		Answer one daemon request.
+		Units are named as in the unit files, optionally with a trial
+		cost as "name@cost". Fields are split by '|' (unit names may
+		hold commas, as in "Lord, 9th Level"). Requests are:
+		- series|unit1|unit2: win percent, its error & mean rounds.
+		- docket|unit: win percent vs. each base unit & sum error.
+		- balance|unit: auto-balanced cost vs. the base units.
+		- stats: result cache entries & use.
+		A failed request is answered with an error, & the daemon 
+		keeps running.
+		@param request line of fields split by '|'.
+		@return one-line reply (starting "Error:" on failure).
+	*/
+	private String answerRequest(String request) {
+		String[] fields = request.split("\\|");
+		try {
+			switch (fields[0].trim().toLowerCase()) {
+				case "series": {
+					checkFieldCount(fields, 3);
+					SeriesResult result = playDocketSeries(
+						findDaemonUnit(fields[1]), 
+						Collections.singletonList(findDaemonUnit(fields[2])))[0];
+					return String.format("win=%.1f,err=%.1f,rounds=%.1f",
+						result.getWinRatio() * 100, 
+						result.getWinRatioStdErr() * 100,
+						result.getMeanRounds());
+				}
+				case "docket": {
+					checkFieldCount(fields, 2);
+					List<Unit> baseUnits = getDaemonBaseUnits();
+					double[] ratios = playDocketThreads(
+						findDaemonUnit(fields[1]), baseUnits);
+					StringBuilder reply = new StringBuilder();
+					for (int i = 0; i < ratios.length; i++) {
+						reply.append(baseUnits.get(i).getAbbreviation() + "=" 
+							+ toPercent(ratios[i]) + ",");
+					}
+					return reply + "SumErr=" + toPercent(sumErrArray(ratios));
+				}
+				case "balance": {
+					checkFieldCount(fields, 2);
+					Unit unit = findDaemonUnit(fields[1]);
+					setAutoBalancedCost(unit, getDaemonBaseUnits());
+					return "cost=" + unit.getCost();
+				}
+				case "stats": {
+					return "entries=" + resultCache.size() 
+						+ ",reused=" + resultCache.getHits()
+						+ ",played=" + resultCache.getMisses();
+				}
+				default:
+					throw new IllegalArgumentException(
+						"Unknown request: " + fields[0].trim());
+			}
+		}
+		catch (IllegalArgumentException e) {
+			return "Error: " + e.getMessage();
+		}
+		catch (RuntimeException e) {
+			return "Error: " + e;
+		}
+	}
+
+	/**
+		Check that a daemon request has the right number of fields.
+	*/
+	private void checkFieldCount(String[] fields, int count) {
+		if (fields.length != count) {
+			throw new IllegalArgumentException("Expected " + (count - 1) 
+				+ " argument(s) for " + fields[0].trim());
+		}
+	}
+
+	/**
+		Get a fresh copy of a unit named in a daemon request.
+		@param spec unit name, optionally followed by "@cost".
+		@return copy of unit (at any cost given).
+	*/
+	private Unit findDaemonUnit(String spec) {
+		String[] parts = spec.split("@");
+		String name = parts[0].trim();
+		List<Unit> allUnits = new ArrayList<Unit>(unitList);
+		allUnits.addAll(soloList);
+		for (Unit unit: allUnits) {
+			if (unit.getName().equalsIgnoreCase(name)) {
+				Unit copy = unit instanceof Solo 
+					? new Solo((Solo) unit) : new Unit(unit);
+				if (parts.length > 1) {
+					int cost = 0;
+					try {
+						cost = Integer.parseInt(parts[1].trim());
+					}
+					catch (NumberFormatException e) {
+						cost = 0;
+					}
+					if (cost < 1) {
+						throw new IllegalArgumentException(
+							"Cost must be a positive integer: " + spec.trim());
+					}
+					copy.setCost(cost);
+				}
+				return copy;
+			}
+		}
+		throw new IllegalArgumentException("No unit named " + name);
+	}
+
+	/**
+		Get the base units for daemon dockets & balancing.
+		Uses the -B selector, or the first -b units (default all).
+	*/
+	private List<Unit> getDaemonBaseUnits() {
+		return selectUnits(baseSelector, unitList.subList(0, 
+			baseUnitNum > 0 ? baseUnitNum : unitList.size()));
+	}
+
 	/**
 		Auto-balance unit costs.
 	*/
 	private void autoBalancer() {
-		if (checkBaseUnitsPositive()) {
+		if (assessSelector != null && baseSelector != null) {
+			List<Unit> assessUnits = selectUnits(assessSelector, null);
+			List<Unit> baseUnits = selectUnits(baseSelector, null);
+			makeAutoBalancedTable(assessUnits, baseUnits);
+		}
+		else if (checkBaseUnitsPositive()) {
 			if (!soloBalancing) {
 				List<Unit> assessUnits = 
 					unitList.subList(baseUnitNum, assessUnitNum);
@@ -481,15 +1163,6 @@ public class BookOfWar {
 		}
 	}
 
-	/**
-		Report detail for a zoom-in game.
-	*/
-	private void reportDetail(String s) {
-		if (simMode == SimMode.ZoomInGame) {
-			System.out.println(s);
-		}
-	}
-	
 	/**
 		Print to output (printf recreation for copied code).
 	*/
@@ -556,6 +1229,7 @@ public class BookOfWar {
 		}
 		
 		// Do the game
+		observer = new ZoomInLog();
 		Unit unit1 = soloBalancing
 			? new Solo(soloList.get(zoomGameUnit1 - 1))
 			: new Unit(unitList.get(zoomGameUnit1 - 1));
@@ -571,7 +1245,8 @@ public class BookOfWar {
 			unit1.setLeader(chief);
 		}
 		Unit unit2 = new Unit(unitList.get(zoomGameUnit2 - 1));
-		playGame(unit1, unit2);
+		playGame(unit1, unit2, new SeriesResult(), d6() > 3, 
+			NO_FIGURE_PLAN);
 	}
 
 	/**
@@ -582,6 +1257,21 @@ public class BookOfWar {
 	{
 		assert !unitList1.isEmpty() && !unitList2.isEmpty();
   
+		// Open result matrix file, if any
+		ResultMatrix matrix = null;
+		if (resultMatrixFile != null) {
+			try {
+				matrix = new ResultMatrix(resultMatrixFile, 
+					unitList1.size(), unitList2.size(), 
+					getTableFingerprint(unitList1, unitList2));
+			}
+			catch (IOException e) {
+				System.err.println("Could not open result matrix: " 
+					+ e.getMessage());
+				return;
+			}
+		}
+
 		// Get formatting info
 		String sepChar = "" + getSepChar();
 		int nameColSize = getMaxNameLength(unitList1);
@@ -599,10 +1289,32 @@ public class BookOfWar {
 		double sumNormError = 0.0;
 		double maxNormError = 0.0;
 		Unit maxNormErrUnit = unitList1.get(0);
-		for (Unit unit1: unitList1) {
+		SeriesResult[] rowResults = new SeriesResult[unitList1.size()];
+		boolean square = unitList1.equals(unitList2);
+		SeriesResult[][] cells = new SeriesResult[unitList1.size()][];
+		SeriesResult[][] newGames = new SeriesResult[unitList1.size()][];
+		long[][] seeds = new long[unitList1.size()][];
+		for (int row = 0; row < unitList1.size(); row++) {
+			Unit unit1 = unitList1.get(row);
 
 			// Run simulation docket
-			double[] winRates = playDocketThreads(unit1, unitList2);
+			playTableRow(row, unitList1, unitList2, square, 
+				cells, newGames, seeds);
+			SeriesResult[] series = cells[row];
+			double[] winRates = getWinRatios(series);
+			rowResults[row] = new SeriesResult();
+			for (SeriesResult result: series) {
+				rowResults[row].merge(result);
+			}
+
+			// Accumulate new games in result matrix (& show running totals)
+			if (matrix != null) {
+				for (int col = 0; col < series.length; col++) {
+					matrix.addResult(row, col, newGames[row][col], 
+						seeds[row][col]);
+					winRates[col] = matrix.getWinRatio(row, col);
+				}
+			}
 			double sumErr = sumErrArray(winRates);
 
 			// Print row name
@@ -627,6 +1339,158 @@ public class BookOfWar {
 		printf("Sum Normal Error: " + toPercent(sumNormError * 100) + "\n");
 		printf("Maximum error unit: " + maxNormErrUnit.getName() 
 			+ " (" + toPercent(maxNormError) + ")\n");
+		if (drawnGames > 0) {
+			printf("Drawn games (stalemate): " + drawnGames + "\n");
+		}
+		if (printDiagnostics) {
+			printDiagnosticsTable(unitList1, rowResults);
+		}
+		if (budgetBins > 1) {
+			printBudgetCurves(unitList1, unitList2, cells);
+		}
+		if (matrix != null) {
+			try {
+				matrix.close();
+			}
+			catch (IOException e) {
+				System.err.println("Could not save result matrix: " 
+					+ e.getMessage());
+			}
+		}
+	}
+
+	/**
+		Get a fingerprint of an assessment table's content: rules,
+		budget range, and the units on each side (in order).
+	*/
+	private long getTableFingerprint(List<Unit> unitList1, 
+		List<Unit> unitList2)
+	{
+		long h = Fingerprint.add(Fingerprint.START, getRulesFingerprint());
+		h = Fingerprint.add(h, budgetMin);
+		h = Fingerprint.add(h, budgetMax);
+		for (List<Unit> units: Arrays.asList(unitList1, unitList2)) {
+			h = Fingerprint.add(h, units.size());
+			for (Unit unit: units) {
+				h = Fingerprint.add(h, unit.getFingerprint());
+			}
+		}
+		return h;
+	}
+
+	/**
+		Play one row of an assessment table.
+		In a square table (same units on both sides), only pairs right
+		of the diagonal are played; cells left of it mirror the earlier
+		rows' results, and the diagonal is left empty (scored 0.5).
+		Fills in the row's series results (with any cached trials),
+		the games newly played for them, & seeds.
+	*/
+	private void playTableRow(int row, List<Unit> unitList1, 
+		List<Unit> unitList2, boolean square, SeriesResult[][] cells, 
+		SeriesResult[][] newGames, long[][] seeds) 
+	{
+		Unit unit1 = unitList1.get(row);
+		int numCols = unitList2.size();
+		int firstPlayed = square ? row + 1 : 0;
+		SeriesTally[] tallies = runDocket(unit1, 
+			unitList2.subList(firstPlayed, numCols));
+		SeriesResult[] played = getTotals(tallies);
+		cells[row] = new SeriesResult[numCols];
+		newGames[row] = new SeriesResult[numCols];
+		seeds[row] = new long[numCols];
+		for (int col = 0; col < numCols; col++) {
+			if (col >= firstPlayed) {
+				cells[row][col] = played[col - firstPlayed];
+				newGames[row][col] = tallies[col - firstPlayed].getPlayed();
+				seeds[row][col] = tallies[col - firstPlayed].getSeed();
+			}
+			else if (col < row) {
+				cells[row][col] = cells[col][row].getMirror();
+				newGames[row][col] = newGames[col][row].getMirror();
+				seeds[row][col] = seeds[col][row];
+			}
+			else {
+				cells[row][col] = new SeriesResult();
+				newGames[row][col] = new SeriesResult();
+			}
+		}
+	}
+
+	/**
+		Print diagnostics for each row of an assessment table.
+		Shows win percent with standard error, mean game length in 
+		rounds with standard error, percent of decided games ended by
+		rout, mean figures left, and win percent by starting terrain.
+	*/
+	private void printDiagnosticsTable(
+		List<Unit> units, SeriesResult[] rowResults) 
+	{
+		String sepChar = "" + getSepChar();
+		int nameColSize = getMaxNameLength(units);
+		printf("\nSeries diagnostics (all opponents in row):\n\n");
+		printWideField("Unit", nameColSize);
+		printf(sepChar + "Win" + sepChar + "+/-" + sepChar + "Rnds" 
+			+ sepChar + "+/-" + sepChar + "Rout" + sepChar + "Figs");
+		for (Terrain terrain: Terrain.values()) {
+			printf(sepChar + terrain.name().substring(0, 2));
+		}
+		printf("\n");
+		for (int row = 0; row < units.size(); row++) {
+			SeriesResult result = rowResults[row];
+			printWideField(units.get(row).getName(), nameColSize);
+			printf(sepChar + toPercent(result.getWinRatio())
+				+ sepChar + String.format("%.1f", 
+					result.getWinRatioStdErr() * 100)
+				+ sepChar + String.format("%.1f", result.getMeanRounds())
+				+ sepChar + String.format("%.2f", 
+					result.getMeanRoundsStdErr())
+				+ sepChar + toPercent(result.getRoutRatio())
+				+ sepChar + String.format("%.1f", 
+					result.getMeanSurvivors(true)));
+			for (Terrain terrain: Terrain.values()) {
+				printf(sepChar + (result.getTerrainGames(terrain) == 0 ? "-"
+					: "" + toPercent(result.getTerrainWinRatio(terrain))));
+			}
+			printf("\n");
+		}
+	}
+
+	/**
+		Print win percents for each cell of an assessment table
+		in bands of nominal budget (one table per band).
+		Each series records its games by the budget drawn, so one run
+		over a wide budget range gives the whole win-rate curve.
+		Cells with no games in a band are shown as "-".
+	*/
+	private void printBudgetCurves(List<Unit> unitList1, 
+		List<Unit> unitList2, SeriesResult[][] cells)
+	{
+		String sepChar = "" + getSepChar();
+		int nameColSize = getMaxNameLength(unitList1);
+		int range = budgetMax - budgetMin;
+		int bins = Math.min(budgetBins, range);
+		for (int bin = 0; bin < bins; bin++) {
+			int fromStep = bin * range / bins;
+			int toStep = (bin + 1) * range / bins;
+			printf("\nWin percents at budget " + (budgetMin + fromStep)
+				+ "-" + (budgetMin + toStep) + ":\n\n");
+			printWideField("Unit", nameColSize);
+			for (Unit unit: unitList2) {
+				printf(sepChar + unit.getAbbreviation());
+			}
+			printf("\n");
+			for (int row = 0; row < unitList1.size(); row++) {
+				printWideField(unitList1.get(row).getName(), nameColSize);
+				for (SeriesResult cell: cells[row]) {
+					printf(sepChar 
+						+ (cell.getBudgetGames(fromStep, toStep) == 0 ? "-"
+						: "" + toPercent(
+							cell.getBudgetWinRatio(fromStep, toStep))));
+				}
+				printf("\n");
+			}
+		}
 	}
 
 	/**
@@ -656,52 +1520,95 @@ public class BookOfWar {
 
 	/**
 		Set auto-balanced cost for a new unit.
-		Searches for sumWinPctErr closest to zero (0).
+		Searches for sumWinPctErr closest to zero (0), starting from
+		the unit's present cost.
 	*/
 	private void setAutoBalancedCost(Unit newUnit, List<Unit> baseUnits) {
-		int lowCost = 1, highCost = newUnit.getCost();
-
-		// Check lower bound for cost
-		newUnit.setCost(lowCost);
-		double lowCostWinPctErr = playDocket(newUnit, baseUnits);
-		if (lowCostWinPctErr < 0) {
-			return;
-		}
-
-		// Find upper bound for cost
-		newUnit.setCost(highCost);
-		double highCostWinPctErr = playDocket(newUnit, baseUnits);
-		while (highCostWinPctErr > 0) {
-			highCost *= 2;
-			newUnit.setCost(highCost);
-			highCostWinPctErr = playDocket(newUnit, baseUnits);
-			if (highCostWinPctErr > 0 && highCost > COST_LIMIT) {
-				newUnit.setCost(COST_LIMIT);
-				return;
+		newUnit.setCost(searchBalancedCost(newUnit.getCost(), cost -> {
+			newUnit.setCost(cost);
+			return playDocket(newUnit, baseUnits);
+		}));
+	}
+
+	/**
+		Search for the cost with sum error closest to zero.
+		Costs are searched by index on a grid: whole numbers, or the 
+		preferred values if in use, so only costs that could be 
+		reported are tried. Starts from a prior estimate (a unit's 
+		present cost, as from the last run's results) with a bracket 
+		one step wide, doubling the step until the error changes sign,
+		then bisects until adjacent grid costs bracket zero error. 
+		A good prior needs only two or three dockets.
+		@param prior estimated best cost.
+		@param error sum error at a cost (falling as cost rises).
+		@return best cost (lowest grid cost if too weak even there,
+			or highest grid cost within COST_LIMIT if too strong 
+			even there).
+	*/
+	private int searchBalancedCost(int prior, IntToDoubleFunction error) {
+		int minIdx = getCostIdx(1);
+		int maxIdx = usePreferredValues 
+			? PreferredValues.getIdxAtLeast(COST_LIMIT + 1) - 1 : COST_LIMIT;
+		int lowIdx = Math.max(minIdx, Math.min(getCostIdx(prior), maxIdx));
+		int highIdx = lowIdx;
+		double lowErr = error.applyAsDouble(getIdxCost(lowIdx));
+		double highErr = lowErr;
+
+		// Widen bracket upward or downward until error changes sign
+		int step = 1;
+		while (highErr > 0) {
+			if (highIdx == maxIdx) {
+				return getIdxCost(maxIdx);
 			}
+			lowIdx = highIdx;
+			lowErr = highErr;
+			highIdx = Math.min(highIdx + step, maxIdx);
+			highErr = error.applyAsDouble(getIdxCost(highIdx));
+			step *= 2;
+		}
+		while (lowErr < 0) {
+			if (lowIdx == minIdx) {
+				return getIdxCost(minIdx);
+			}
+			highIdx = lowIdx;
+			highErr = lowErr;
+			lowIdx = Math.max(lowIdx - step, minIdx);
+			lowErr = error.applyAsDouble(getIdxCost(lowIdx));
+			step *= 2;
 		}
-			
+
 		// Binary search for best cost
-		while (highCost - lowCost > 1) {
-			int midCost = (highCost + lowCost) / 2;			
-			newUnit.setCost(midCost);
-			double midWinPctErr = playDocket(newUnit, baseUnits);
-			if (midWinPctErr < 0) {
-				highCost = midCost;
-				highCostWinPctErr = midWinPctErr;
+		while (highIdx - lowIdx > 1) {
+			int midIdx = (highIdx + lowIdx) / 2;
+			double midErr = error.applyAsDouble(getIdxCost(midIdx));
+			if (midErr < 0) {
+				highIdx = midIdx;
+				highErr = midErr;
 			}
 			else {
-				lowCost = midCost;
-				lowCostWinPctErr = midWinPctErr;
+				lowIdx = midIdx;
+				lowErr = midErr;
 			}
 		}
 
 		// Final check for which is better
-		assert lowCostWinPctErr >= 0 && highCostWinPctErr <= 0;
-		int bestCost = lowCostWinPctErr < -highCostWinPctErr 
-			? lowCost : highCost;
-		newUnit.setCost(!usePreferredValues 
-			? bestCost : PreferredValues.getClosest(bestCost));
+		assert lowErr >= 0 && highErr <= 0;
+		return getIdxCost(lowErr < -highErr ? lowIdx : highIdx);
+	}
+
+	/**
+		Get the cost grid index closest to a cost.
+		(The cost itself, or the index of closest preferred value.)
+	*/
+	private int getCostIdx(int cost) {
+		return usePreferredValues ? PreferredValues.getClosestIdx(cost) : cost;
+	}
+
+	/**
+		Get the cost at a cost grid index.
+	*/
+	private int getIdxCost(int idx) {
+		return usePreferredValues ? PreferredValues.get(idx) : idx;
 	}
 
 	/**
@@ -712,13 +1619,34 @@ public class BookOfWar {
 		- For a very small unit list, may cyclically push costs in one direction.
 
 		Use tastefully; recommend estimating prices with mode-2 first.
+
+		With preferred values, assessed costs start at the closest
+		preferred value, and each step moves one place in the values.
+
+		Keeps a live matrix of win ratios between all assessed units.
+		A cost change to one unit replays only that unit's row &
+		column (2N-1 series), and the total error is updated from
+		the per-row errors; a rejected change restores the old cells.
 	*/
 	private void fullAutoBalancer() {
 
 		// Initialize list to balance
 		printf("Initializing full auto-balancer...\n");
 		List<Unit> assessUnits = unitList.subList(0, assessUnitNum);
-		double oldSumNormError = playAllDockets(assessUnits);
+		int numUnits = assessUnits.size();
+		if (usePreferredValues) {
+			for (int i = baseUnitNum; i < numUnits; i++) {
+				Unit unit = assessUnits.get(i);
+				unit.setCost(getIdxCost(getCostIdx(unit.getCost())));
+			}
+		}
+		double[][] winRatios = new double[numUnits][];
+		double[] rowErrors = new double[numUnits];
+		for (int i = 0; i < numUnits; i++) {
+			winRatios[i] = playDocketThreads(assessUnits.get(i), assessUnits);
+			rowErrors[i] = sumErrArray(winRatios[i]);
+		}
+		double oldSumNormError = sumNormErrors(rowErrors);
 		
 		// Iterate attempts at improving some unit
 		printf("Searching for improved costs...\n");
@@ -726,13 +1654,16 @@ public class BookOfWar {
 		do {
 			adjustedAnyUnit = false;
 
-			// Make shuffled list of units to test
-			List<Unit> unitsToTest = new ArrayList<Unit>(
-				unitList.subList(baseUnitNum, assessUnitNum));
+			// Make shuffled list of unit positions to test
+			List<Integer> unitsToTest = new ArrayList<Integer>();
+			for (int i = baseUnitNum; i < assessUnitNum; i++) {
+				unitsToTest.add(i);
+			}
 			Collections.shuffle(unitsToTest);
 				
 			// Try to improve price of any unit in list
-			for (Unit modUnit: unitsToTest) {
+			for (int modIndex: unitsToTest) {
+				Unit modUnit = assessUnits.get(modIndex);
 				int startCost = modUnit.getCost();
 		
 				// Keep trying to adjust this unit while we see improvement
@@ -741,11 +1672,20 @@ public class BookOfWar {
 					adjustGain = false;
 
 					// One step cost change in needed direction
+					// (row error as of the latest replays of its column)
 					int oldCost = modUnit.getCost();
-					double oldUnitSumErr = playDocket(modUnit, assessUnits);
+					rowErrors[modIndex] = sumErrArray(winRatios[modIndex]);
+					double oldUnitSumErr = rowErrors[modIndex];
 					int newCost = getNewCost(oldCost, oldUnitSumErr > 0);
+					if (newCost == oldCost) {
+						break;
+					}
 					modUnit.setCost(newCost);
-					double newSumNormError = playAllDockets(assessUnits);
+					double[] oldRow = winRatios[modIndex].clone();
+					double[] oldRowErrors = rowErrors.clone();
+					double[] oldColumn = replayRowAndColumn(
+						winRatios, rowErrors, assessUnits, modIndex);
+					double newSumNormError = sumNormErrors(rowErrors);
 
 					// If this reduced error from parity, keep new cost
 					if (newSumNormError < oldSumNormError) {
@@ -757,6 +1697,12 @@ public class BookOfWar {
 					}
 					else {
 						modUnit.setCost(oldCost);
+						winRatios[modIndex] = oldRow;
+						for (int i = 0; i < numUnits; i++) {
+							winRatios[i][modIndex] = oldColumn[i];
+						}
+						System.arraycopy(oldRowErrors, 0, 
+							rowErrors, 0, numUnits);
 					}
 				} while (adjustGain);
 				
@@ -783,16 +1729,13 @@ public class BookOfWar {
 
 	/**
 		Get new cost for full auto-balancer.
+		Moves one step on the cost grid (no lower than its first cost,
+		nor higher than COST_LIMIT); returns old cost if it cannot move.
 	*/
 	private int getNewCost(int oldCost, boolean up) {
-		if (usePreferredValues) {
-			return up 
-				? PreferredValues.inc(oldCost) 
-				: PreferredValues.dec(oldCost);
-		}
-		else {
-			return up ? oldCost + 1 : oldCost - 1;
-		}
+		int idx = getCostIdx(oldCost) + (up ? 1 : -1);
+		int newCost = idx < getCostIdx(1) ? oldCost : getIdxCost(idx);
+		return newCost > COST_LIMIT ? oldCost : newCost;
 	}
 
 	/**
@@ -830,52 +1773,14 @@ public class BookOfWar {
 
 	/**
 		Set the best cost for an embedded Solo type.
-		Searches for sumWinPctErr closest to zero (0).
+		Searches for sumWinPctErr closest to zero (0), starting from
+		the Solo's present cost.
 	*/
 	private void setEmbedBalancedCost(Solo solo) {
-		int lowCost = 1, highCost = solo.getCost();
-
-		// Check lower bound for cost
-		solo.setCost(lowCost);
-		double lowCostWinPctErr = scoreSoloAllHosts(solo);
-		if (lowCostWinPctErr < 0) {
-			return;
-		}
-
-		// Find upper bound for cost
-		solo.setCost(highCost);
-		double highCostWinPctErr = scoreSoloAllHosts(solo);
-		while (highCostWinPctErr > 0) {
-			highCost *= 2;
-			solo.setCost(highCost);
-			highCostWinPctErr = scoreSoloAllHosts(solo);
-			if (highCostWinPctErr > 0 && highCost > COST_LIMIT) {
-				solo.setCost(COST_LIMIT);
-				return;
-			}
-		}
-			
-		// Binary search for best cost
-		while (highCost - lowCost > 1) {
-			int midCost = (highCost + lowCost) / 2;
-			solo.setCost(midCost);
-			double midWinPctErr = scoreSoloAllHosts(solo);
-			if (midWinPctErr < 0) {
-				highCost = midCost;
-				highCostWinPctErr = midWinPctErr;
-			}
-			else {
-				lowCost = midCost;
-				lowCostWinPctErr = midWinPctErr;
-			}
-		}
-
-		// Final check for which is better
-		assert lowCostWinPctErr >= 0 && highCostWinPctErr <= 0;
-		int bestCost = lowCostWinPctErr < -highCostWinPctErr 
-			? lowCost : highCost;
-		solo.setCost(!usePreferredValues 
-			? bestCost : PreferredValues.getClosest(bestCost));
+		solo.setCost(searchBalancedCost(solo.getCost(), cost -> {
+			solo.setCost(cost);
+			return scoreSoloAllHosts(solo);
+		}));
 	}
 
 	/**
@@ -940,18 +1845,70 @@ public class BookOfWar {
 	}
 
 	/**
-		Play repeated series of every unit in a list against every other unit.
-		Returns grand total of normalized win percent error.
+		Get grand total of normalized errors over table rows.
 	*/
-	private double playAllDockets(List<Unit> pUnitList) {
+	private double sumNormErrors(double[] rowErrors) {
 		double sumNormError = 0.0;
-		for (Unit unit: pUnitList) {
-			double error = playDocket(unit, pUnitList);
+		for (double error: rowErrors) {
 			sumNormError += normalError(error);
 		}
 		return sumNormError;
 	}
 
+	/**
+		Replay one unit's row & column in a matrix of win ratios
+		(row unit vs. column unit), and update the row errors.
+		Returns the old column of ratios.
+	*/
+	private double[] replayRowAndColumn(double[][] winRatios, 
+		double[] rowErrors, List<Unit> units, int index)
+	{
+		Unit unit = units.get(index);
+		int numUnits = units.size();
+		double[] newRow, newColumn;
+		if (figureCache != null) {
+
+			// Look up row & column pairs together by figures
+			List<Unit> firsts = new ArrayList<Unit>(
+				Collections.nCopies(numUnits, unit));
+			firsts.addAll(units);
+			List<Unit> seconds = new ArrayList<Unit>(units);
+			seconds.addAll(Collections.nCopies(numUnits, unit));
+			double[] ratios = playPairsByFigures(firsts, seconds);
+			newRow = Arrays.copyOfRange(ratios, 0, numUnits);
+			newColumn = Arrays.copyOfRange(ratios, numUnits, 2 * numUnits);
+		}
+		else {
+
+			// Queue series for row & column together
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			Map<Long, SeriesTally> toCache = new HashMap<Long, SeriesTally>();
+			SeriesTally[] row = new SeriesTally[numUnits];
+			SeriesTally[] column = new SeriesTally[numUnits];
+			for (int i = 0; i < numUnits; i++) {
+				row[i] = queueSeries(unit, units.get(i), futures, toCache);
+				column[i] = (i == index) ? row[i]
+					: queueSeries(units.get(i), unit, futures, toCache);
+			}
+			finishSeries(futures, toCache);
+			newRow = getWinRatios(getTotals(row));
+			newColumn = getWinRatios(getTotals(column));
+		}
+
+		// Update matrix & row errors
+		double[] oldColumn = new double[numUnits];
+		winRatios[index] = newRow;
+		for (int i = 0; i < numUnits; i++) {
+			oldColumn[i] = winRatios[i][index];
+			if (i != index) {
+				winRatios[i][index] = newColumn[i];
+				rowErrors[i] += newColumn[i] - oldColumn[i];
+			}
+		}
+		rowErrors[index] = sumErrArray(winRatios[index]);
+		return oldColumn;
+	}
+
 	/**
 		Play repeated series of one unit against a list of other units.
 		Returns sum win percentage error for the test unit.
@@ -964,72 +1921,368 @@ public class BookOfWar {
 	/**
 		Play repeated series of one unit against a list of other units.
 		(Think of a "docket" as one season for a pro sports team.)
-		Multithreaded: Spawns separate thread per series matchup.
 		Returns array of win ratios for test unit vs. each enemy in list.
 	*/
 	private double[] playDocketThreads(Unit unit, List<Unit> enemies) {
+		if (figureCache != null) {
+			return playPairsByFigures(
+				Collections.nCopies(enemies.size(), unit), enemies);
+		}
+		return getWinRatios(playDocketSeries(unit, enemies));
+	}
+
+	/**
+		Play pairs of units through the figure-count cache.
+		For each pair, finds the figure plan bought by each budget in
+		the budget range, plays any games that plan's cell lacks (in 
+		proportion to the budgets that buy it, as a full series would),
+		and weights the cells' win ratios by those budgets.
+		Returns win ratio for the first unit of each pair.
+	*/
+	private double[] playPairsByFigures(List<Unit> units1, List<Unit> units2) {
+		int numPairs = units1.size();
+		int range = budgetMax - budgetMin;
+		List<Map<Long, Integer>> budgetsByCell 
+			= new ArrayList<Map<Long, Integer>>(numPairs);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		Map<Long, SeriesTally> newCells = new HashMap<Long, SeriesTally>();
+		for (int i = 0; i < numPairs; i++) {
+			Map<Long, Integer> budgets = new LinkedHashMap<Long, Integer>();
+			budgetsByCell.add(budgets);
+			if (units1.get(i).playsSameAs(units2.get(i))) {
+				continue;
+			}
+
+			// Count budgets buying each figure plan
+			Unit unit1 = new Unit(units1.get(i));
+			Unit unit2 = new Unit(units2.get(i));
+			Map<Long, Long> plans = new LinkedHashMap<Long, Long>();
+			for (int budget = budgetMin; budget < budgetMax; budget++) {
+				long plan = getFigurePlan(unit1, unit2, budget);
+				long key = FigureCache.makeKey(unit1, unit2, plan);
+				Integer count = budgets.get(key);
+				budgets.put(key, count == null ? 1 : count + 1);
+				plans.put(key, plan);
+			}
+
+			// Queue games for cells short of trials
+			for (Map.Entry<Long, Integer> entry: budgets.entrySet()) {
+				long key = entry.getKey();
+				int needed = (int) (((long) trialsPerMatchup 
+					* entry.getValue() + range - 1) / range);
+				int trialsNeeded = needed - figureCache.lookup(key, needed);
+				if (trialsNeeded <= 0 || newCells.containsKey(key)) {
+					continue;
+				}
+				SeriesTally tally 
+					= new SeriesTally(WORKER_THREADS, nextSeriesSeed());
+				newCells.put(key, tally);
+				int chunk = 0;
+				int heldTrials = needed - trialsNeeded;
+				for (int start = 0; start < trialsNeeded; 
+					start += SERIES_CHUNK_TRIALS) 
+				{
+					int trials = Math.min(SERIES_CHUNK_TRIALS, 
+						trialsNeeded - start);
+					futures.add(WORKER_POOL.submit(new SeriesRunner(this, 
+						unit1, unit2, trials, heldTrials + start, tally, 
+						chunk++, plans.get(key))));
+				}
+			}
+		}
+		waitForAll(futures);
+		for (Map.Entry<Long, SeriesTally> entry: newCells.entrySet()) {
+			figureCache.add(entry.getKey(), entry.getValue().getTotal());
+		}
+
+		// Weight cells over budget range
+		double[] ratios = new double[numPairs];
+		for (int i = 0; i < numPairs; i++) {
+			Map<Long, Integer> budgets = budgetsByCell.get(i);
+			if (budgets.isEmpty()) {
+				ratios[i] = 0.5;
+				continue;
+			}
+			for (Map.Entry<Long, Integer> entry: budgets.entrySet()) {
+				ratios[i] += figureCache.getWinRatio(entry.getKey())
+					* entry.getValue() / range;
+			}
+		}
+		return ratios;
+	}
+
+	/**
+		Play repeated series of one unit against a list of other units.
+		Returns array of result records for test unit vs. each enemy.
+	*/
+	private SeriesResult[] playDocketSeries(Unit unit, List<Unit> enemies) {
+		return getTotals(runDocket(unit, enemies));
+	}
 
-		// Run series threads
+	/**
+		Play repeated series of one unit against a list of other units.
+		Multithreaded: Splits each series into chunks of trials, queues
+		every chunk on the worker pool, and merges chunk results.
+		Mirror matches are not played (left empty, so scored 0.5), and
+		enemies identical to an earlier one share its series.
+		With a result cache, cached trials are reused & only any
+		shortfall is played.
+		Returns array of series tallies for test unit vs. each enemy.
+	*/
+	private SeriesTally[] runDocket(Unit unit, List<Unit> enemies) {
+
+		// Run series chunks on worker threads
 		int numOpp = enemies.size();
-		Thread[] threads = new Thread[numOpp];
-		SeriesRunner[] runners = new SeriesRunner[numOpp];
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		SeriesTally[] tallies = new SeriesTally[numOpp];
+		Map<Long, Integer> played = new HashMap<Long, Integer>();
+		Map<Long, SeriesTally> toCache = new HashMap<Long, SeriesTally>();
 		for (int i = 0; i < numOpp; i++) {
-			runners[i] = new SeriesRunner(this, unit, enemies.get(i));
-			threads[i] = new Thread(runners[i]);
-			threads[i].start();		
+			Unit enemy = enemies.get(i);
+			Integer first = played.get(enemy.getFingerprint());
+			if (first != null && enemies.get(first).playsSameAs(enemy)) {
+				tallies[i] = tallies[first];
+			}
+			else {
+				tallies[i] = queueSeries(unit, enemy, futures, toCache);
+				played.putIfAbsent(enemy.getFingerprint(), i);
+			}
 		}
-		waitForThreads(threads);
+		finishSeries(futures, toCache);
+		return tallies;
+	}
 
-		// Compile results array
-		double[] results = new double[numOpp];
-		for (int i = 0; i < numOpp; i++) {
-			results[i] = runners[i].getTestUnitWinRatio();
+	/**
+		Queue the chunks of one series on the worker pool.
+		A mirror match is not queued (left empty, so scored 0.5).
+		With a result cache, the cached trials are the tally's prior
+		record, only any shortfall is queued, and a tally with games
+		to play is noted for storing its new games in the cache.
+		Returns the tally to be filled by the queued chunks.
+	*/
+	private SeriesTally queueSeries(Unit unit, Unit enemy, 
+		List<Future<?>> futures, Map<Long, SeriesTally> toCache)
+	{
+		SeriesTally tally = new SeriesTally(WORKER_THREADS, nextSeriesSeed());
+		if (unit.playsSameAs(enemy)) {
+			return tally;
+		}
+		int trialsNeeded = trialsPerMatchup;
+		int heldTrials = 0;
+		if (resultCache != null) {
+			long key = ResultCache.makeKey(unit, enemy, budgetMin, budgetMax);
+			SeriesResult cached = resultCache.get(key);
+			tally.setPrior(cached);
+			heldTrials = cached.getTrials();
+			trialsNeeded -= heldTrials;
+			resultCache.countLookup(trialsNeeded <= 0);
+			if (trialsNeeded > 0) {
+				toCache.put(key, tally);
+			}
+		}
+		int chunk = 0;
+		for (int start = 0; start < trialsNeeded; 
+			start += SERIES_CHUNK_TRIALS) 
+		{
+			int trials = Math.min(SERIES_CHUNK_TRIALS, trialsNeeded - start);
+			futures.add(WORKER_POOL.submit(new SeriesRunner(this, unit,
+				enemy, trials, heldTrials + start, tally, chunk++)));
+		}
+		return tally;
+	}
+
+	/**
+		Wait for queued series chunks & store new results in cache.
+	*/
+	private void finishSeries(List<Future<?>> futures, 
+		Map<Long, SeriesTally> toCache)
+	{
+		waitForAll(futures);
+		for (Map.Entry<Long, SeriesTally> entry: toCache.entrySet()) {
+			SeriesTally tally = entry.getValue();
+			resultCache.add(entry.getKey(), tally.getSeed(), 
+				tally.getPlayed());
+		}
+	}
+
+	/**
+		Get total results from an array of series tallies.
+		Also counts drawn games for the run (once per shared series).
+	*/
+	private SeriesResult[] getTotals(SeriesTally[] tallies) {
+		SeriesResult[] results = new SeriesResult[tallies.length];
+		Set<SeriesTally> counted = new HashSet<SeriesTally>();
+		for (int i = 0; i < tallies.length; i++) {
+			results[i] = tallies[i].getTotal();
+			if (counted.add(tallies[i])) {
+				drawnGames += results[i].getDraws();
+			}
 		}		
 		return results;
 	}
 
+	/**
+		Get the seed for the next series played in this run.
+	*/
+	private long nextSeriesSeed() {
+		return SeriesTally.mixSeed(baseSeed + seriesCount++);
+	}
+
+	/**
+		Get win ratios from an array of series results.
+	*/
+	private double[] getWinRatios(SeriesResult[] series) {
+		double[] ratios = new double[series.length];
+		for (int i = 0; i < series.length; i++) {
+			ratios[i] = series[i].getWinRatio();
+		}
+		return ratios;
+	}
+
 	/**
 		Play series of games between a pair of units.
-		Return ratio of wins by first unit.
+		Initiative alternates from game to game, so each side
+		starts first equally often (as a series of the units in
+		the other order would).
+		Return result record for the first unit.
 	*/
-	public double playSeries(Unit unit1, Unit unit2) {
-		int unitOneWins = 0;
-		for (int i = 0; i < trialsPerMatchup; i++) {
-			boolean win1 = playGame(unit1, unit2);
-			if (win1) {
-				unitOneWins++;
-			}
+	public SeriesResult playSeries(Unit unit1, Unit unit2, int trials) {
+		return playSeries(unit1, unit2, trials, 0, NO_FIGURE_PLAN);
+	}
+
+	/**
+		Play part of a series of games between a pair of units.
+		Initiative alternates on the index of each game in the 
+		whole series (from firstGame), so it stays even over
+		chunks & segments of any length.
+		If a figure plan is given, every game uses its figures
+		instead of buying figures by budget.
+		Return result record for the first unit.
+	*/
+	public SeriesResult playSeries(Unit unit1, Unit unit2, int trials,
+		int firstGame, long figurePlan) 
+	{
+		if (useBatchEngine
+			&& figurePlan == NO_FIGURE_PLAN
+			&& BatchEngine.isSupported(unit1)
+			&& BatchEngine.isSupported(unit2))
+		{
+			BatchEngine engine = new BatchEngine(
+				unit1, unit2, budgetMin, budgetMax, game.random);
+			return engine.playSeries(trials, firstGame);
+		}
+		SeriesResult result = new SeriesResult();
+		for (int i = 0; i < trials; i++) {
+			playGame(unit1, unit2, result, (firstGame + i) % 2 == 0, 
+				figurePlan);
 		}
-		return (double) unitOneWins / trialsPerMatchup;
+		return result;
 	}
 
 	/**
 		Play out one game.
-		Return true if first unit wins.
+		A game with no progress for STALL_ROUND_LIMIT rounds,
+		or lasting MAX_ROUNDS_PER_GAME rounds, is a draw
+		(unless the last round decided it).
+		Records the game & returns result for the first unit.
 	*/
-	private boolean playGame(Unit unit1, Unit unit2) {
+	private GameResult playGame(Unit unit1, Unit unit2, 
+		SeriesResult record, boolean unit2First, long figurePlan) 
+	{
 
 		// Set up game
 		initBattlefield();
-		initUnitsByBudget(unit1, unit2);
+		int budgetStep = -1;
+		if (figurePlan == NO_FIGURE_PLAN) {
+			budgetStep = initUnitsByBudget(unit1, unit2) - budgetMin;
+		}
+		else {
+			initUnitsByFigures(unit1, unit2, figurePlan);
+		}
+		Terrain startTerrain = game.terrain;
 
 		// Initiative for unit2 to start
-		if (d6() > 3) {
+		if (unit2First) {
 			oneTurn(unit2, unit1);
 		}
 		
-		// Battle until one side wins
+		// Battle until one side wins (or stalemate)
+		long progressMark = getProgressMark(unit1, unit2);
+		int stallRounds = 0;
+		int rounds = 0;
 		while (bothUnitsLive(unit1, unit2)) {
 			oneTurn(unit1, unit2);
 			if (bothUnitsLive(unit1, unit2)) {
 				oneTurn(unit2, unit1);
 			}
+
+			// Check for stalemate
+			long newMark = getProgressMark(unit1, unit2);
+			stallRounds = newMark == progressMark ? stallRounds + 1 : 0;
+			progressMark = newMark;
+			rounds++;
+			if (bothUnitsLive(unit1, unit2)
+				&& (stallRounds >= STALL_ROUND_LIMIT
+					|| rounds >= MAX_ROUNDS_PER_GAME))
+			{
+				observer.onStalemate(unit1, unit2);
+				record.addGame(GameResult.Draw, rounds, countAllFigures(unit1),
+					countAllFigures(unit2), false, startTerrain, budgetStep);
+				return GameResult.Draw;
+			}
 		}
 
 		// Report on winner
 		Unit winner = getWinner(unit1, unit2);		
-		reportDetail("* WINNER *: " + winner);
-		return winner == unit1;
+		observer.onWinner(winner);
+		Unit loser = winner == unit1 ? unit2 : unit1;
+		GameResult result = winner == unit1 ? GameResult.Win : GameResult.Loss;
+		record.addGame(result, rounds, countAllFigures(unit1),
+			countAllFigures(unit2), loser.isRouted(), startTerrain, 
+			budgetStep);
+		return result;
+	}
+
+	/**
+		Get a mark of game progress (figures, damage taken, distance 
+		& visibility), so a unit worn down without losing figures 
+		is not taken for a stalemate.
+	*/
+	private long getProgressMark(Unit unit1, Unit unit2) {
+		long mark = mixProgressMark(getUnitMark(unit1), getUnitMark(unit2));
+		mark = mixProgressMark(mark, game.distance);
+		return mixProgressMark(mark, 
+			(unit1.isVisible() ? 2 : 0) | (unit2.isVisible() ? 1 : 0));
+	}
+
+	/**
+		Get a mark of one unit's figures & damage taken (with leader).
+	*/
+	private long getUnitMark(Unit unit) {
+		long mark = mixProgressMark(unit.getFigures(), unit.getDamageTaken());
+		if (unit.hasLeader()) {
+			Unit leader = unit.getLeader();
+			mark = mixProgressMark(mark, leader.getFigures());
+			mark = mixProgressMark(mark, leader.getDamageTaken());
+		}
+		return mark;
+	}
+
+	/**
+		Mix one value into a progress mark.
+		A change in any value mixed in changes the mark (but for
+		a vanishingly rare 64-bit collision).
+	*/
+	static long mixProgressMark(long mark, long value) {
+		return mark * PROGRESS_MARK_PRIME + value;
+	}
+
+	/**
+		Count figures in a unit, including any leader.
+	*/
+	private int countAllFigures(Unit unit) {
+		return unit.getFigures()
+			+ (unit.hasLeader() ? unit.getLeader().getFigures() : 0);
 	}
 
 	/**
@@ -1059,43 +2312,73 @@ public class BookOfWar {
 		Initialize battlefield (terrain, weather, distance, etc.).
 	*/
 	private void initBattlefield() {
-		randomizeTerrain();
-		randomizeWeather();
-		distance = 25 + random.nextInt(25);
-		reportDetail("Terrain: " + terrain);
-		reportDetail("Weather: " + weather);
-		reportDetail("Distance: " + distance);
-		priorContact = false;
+		Terrain terrain = rollTerrain(game.random);
+		Weather weather = rollWeather(game.random);
+		game.reset(terrain, weather, 25 + game.random.nextInt(25));
+		observer.onBattlefield(terrain, weather, game.distance);
 	}
 
 	/**
 		Randomize budget & initialize opposing units.
+		@return nominal budget drawn (before any adjustment).
 	*/
-	private void initUnitsByBudget(Unit unit1, Unit unit2) {
+	private int initUnitsByBudget(Unit unit1, Unit unit2) {
 
 		// Get random budget
 		int range = budgetMax - budgetMin;
-		int budget = budgetMin + random.nextInt(range);
+		int budget = budgetMin + game.random.nextInt(range);
+
+		// Set units
+		initUnitsByFigures(unit1, unit2, 
+			getFigurePlan(unit1, unit2, budget));
+		
+		// Report
+		observer.onUnitsReady(getAdjustedBudget(unit1, unit2, budget), 
+			unit1, unit2);
+		return budget;
+	}
+
+	/**
+		Get the figures each unit buys with a budget.
+		Adds any required controllers first.
+	*/
+	private long getFigurePlan(Unit unit1, Unit unit2, int budget) {
 
 		// Check if we need to add required controllers
 		checkControllerReq(unit1);
 		checkControllerReq(unit2);
 
-		// Handle units pricier than our nominal budget:
-		// if so, set budget to their cost plus a margin to not advantage them
+		// Buy figures on each side
+		budget = getAdjustedBudget(unit1, unit2, budget);
+		return FigureCache.makePlan(
+			getFiguresBought(unit1, budget), getLeaderBought(unit1, budget),
+			getFiguresBought(unit2, budget), getLeaderBought(unit2, budget));
+	}
+
+	/**
+		Adjust a budget for units pricier than it.
+		If so, set budget to their cost plus a margin to not 
+		advantage them.
+	*/
+	private int getAdjustedBudget(Unit unit1, Unit unit2, int budget) {
 		int maxCost = Math.max(getMaxCost(unit1), getMaxCost(unit2));
 		if (maxCost > budget) {
 			int minCost = Math.min(unit1.getCost(), unit2.getCost());
 			budget = maxCost + minCost / 2;		
 		}
+		return budget;
+	}
 
-		// Set units
-		initUnit(unit1, budget);
-		initUnit(unit2, budget);
-		
-		// Report
-		reportDetail("Budget: " + budget);
-		reportDetail("Units: " + unit1 + " vs. " + unit2);
+	/**
+		Initialize opposing units with figures from a plan.
+	*/
+	private void initUnitsByFigures(Unit unit1, Unit unit2, long plan) {
+		checkControllerReq(unit1);
+		checkControllerReq(unit2);
+		initUnit(unit1, FigureCache.getFigures(plan, 0), 
+			FigureCache.getLeaderFigures(plan, 0));
+		initUnit(unit2, FigureCache.getFigures(plan, 1), 
+			FigureCache.getLeaderFigures(plan, 1));
 	}
 
 	/**
@@ -1121,31 +2404,44 @@ public class BookOfWar {
 	}
 
 	/**
-		Initialize one unit by budget.
+		Get the leader figures one unit buys with a budget.
 	*/
-	private void initUnit(Unit unit, int budget) {
+	private int getLeaderBought(Unit unit, int budget) {
 		assert budget >= 0;
+		return unit.hasLeader() && budget >= unit.getLeader().getCost()
+			? 1 : 0;
+	}
+
+	/**
+		Get the normal figures one unit buys with a budget.
+	*/
+	private int getFiguresBought(Unit unit, int budget) {
 		assert getMaxCost(unit) <= budget;
 
-		// Buy any attached leader
-		if (unit.hasLeader()) {
-			Solo leader = unit.getLeader();
-			if (budget >= leader.getCost()) {
-				leader.setFigures(1);
-				budget -= leader.getCost();
-			}
-			else {
-				leader.setFigures(0);
-			}
-			finishInitUnit(leader);
+		// Pay for any attached leader
+		if (getLeaderBought(unit, budget) > 0) {
+			budget -= unit.getLeader().getCost();
 		}
 
 		// Here we round the number of purchased figures to closest integer
 		// If this goes over budget, we assume it balances with some other
 		// unit on the imagined table that was under-budget to compensate
-		int figures = (int) ((double) budget / unit.getCost() + 0.5);
+		return (int) ((double) budget / unit.getCost() + 0.5);
+	}
+
+	/**
+		Initialize one unit with bought figures.
+	*/
+	private void initUnit(Unit unit, int figures, int leaderFigures) {
 
-		// Buy & set up normal figures
+		// Set up any attached leader
+		if (unit.hasLeader()) {
+			Solo leader = unit.getLeader();
+			leader.setFigures(leaderFigures);
+			finishInitUnit(leader);
+		}
+
+		// Set up normal figures
 		unit.setFigures(figures);
 		finishInitUnit(unit);
 	}
@@ -1161,7 +2457,7 @@ public class BookOfWar {
 		// Set visibility
 		boolean invisible = unit.hasSpecial(SpecialType.Invisibility)
 				|| (unit.hasSpecial(SpecialType.WoodsCover) 
-					&& terrain == Terrain.Woods);
+					&& game.terrain == Terrain.Woods);
 		unit.setVisible(!invisible);
 
 		// Prepare any special abilities
@@ -1173,20 +2469,25 @@ public class BookOfWar {
 		Set ranks and files for a unit.
 	*/
 	private void setRanksAndFiles(Unit unit) {
+		unit.setFiles(getStartFiles(unit.getFigures()));
+	}
+
+	/**
+		Get the number of files to deploy for a number of figures.
+	*/
+	static int getStartFiles(int figures) {
 
 		// Based on experience at table & need for maneuvarability,
 		// we fill out 5 files up to 3 ranks (up to 15 figures).
-		if (unit.getFigures() <= 15) {
-			int files = Math.min(unit.getFigures(), 5);
-			unit.setFiles(files);
+		if (figures <= 15) {
+			return Math.min(figures, 5);
 		}
 		
 		// For more figures (not seen in practice, but may happen here
 		// when the autobalancer starts at low cost, or if budget increased)
 		// then we aim for a files:ranks proportion of 2:1.
 		else {
-			int files = (int) Math.sqrt(2 * unit.getFigures());
-			unit.setFiles(files);
+			return (int) Math.sqrt(2 * figures);
 		}
 	}
 
@@ -1255,7 +2556,7 @@ public class BookOfWar {
 	private boolean tryOneTurnRanged(
 		Unit attacker, Unit defender, boolean wantsToMove) 
 	{
-		if (distance > 0
+		if (game.distance > 0
 			&& attacker.hasMissiles()
 			&& minDistanceToShoot(attacker, defender) > 0
 			&& !attacker.hasSpecial(SpecialType.MeleeShot))
@@ -1274,22 +2575,22 @@ public class BookOfWar {
 	private int moveSeekRange(
 		Unit attacker, Unit defender, int goalDist, boolean fullSpeed) 
 	{
-		assert distance > 0;
-		assert 0 <= goalDist && goalDist < distance;
+		assert game.distance > 0;
+		assert 0 <= goalDist && goalDist < game.distance;
 
 		// Compute distance to move
 		int maxMove = getMove(attacker);
 		if (!fullSpeed && maxMove > 1) {
 			maxMove /= 2;
 		}
-		int moveDist = Math.min(distance - goalDist, maxMove);
+		int moveDist = Math.min(game.distance - goalDist, maxMove);
 
 		// Make the move
-		assert 0 < moveDist && moveDist <= distance;
-		distance -= moveDist;
-		reportDetail(attacker + " move to distance " + distance);
+		assert 0 < moveDist && moveDist <= game.distance;
+		game.distance -= moveDist;
+		observer.onMove(attacker, game.distance, true);
 		checkVisibility(attacker, defender);
-		if (distance == 0) {
+		if (game.distance == 0) {
 			checkInitialContact(attacker, defender);
 		}
 		return moveDist;
@@ -1303,11 +2604,11 @@ public class BookOfWar {
 		So: Only get one-quarter of full movement
 	*/
 	private int moveBackward(Unit attacker) {
-		assert distance > 0;
+		assert game.distance > 0;
 		assert attacker.hasSpecial(SpecialType.SplitMove);
 		int moveDist = getMove(attacker) / 4;
-		distance += moveDist;
-		reportDetail(attacker + " move back to distance " + distance);
+		game.distance += moveDist;
+		observer.onMove(attacker, game.distance, false);
 		return moveDist;			
 	}	
 
@@ -1317,14 +2618,9 @@ public class BookOfWar {
 	private void applyDamage(
 		Unit attacker, Unit defender, boolean ranged, int hits) 
 	{
-		String startReport = attacker 
-			+ (ranged ? " shoot " : " attack ") + defender + ": ";
-
+		observer.onAttack(attacker, defender, ranged);
 		int figsKilled = defender.takeDamage(hits);
-
-		String endReport = figsKilled + " fig" 
-			+ (figsKilled == 1 ? "" : "s") + " killed";
-		reportDetail(startReport + endReport);
+		observer.onDamage(defender, figsKilled);
 	}
 
 	/**
@@ -1336,14 +2632,14 @@ public class BookOfWar {
 		int distMoved = 0;
 	
 		// Charge to contact
-		if (distance > 0 && wantsToMove) {
+		if (game.distance > 0 && wantsToMove) {
 			distMoved = moveSeekRange(attacker, defender, 0, true);
 		}
 
 		// Expand frontage if useful
-		if (distance == 0 && distMoved == 0) {
+		if (game.distance == 0 && distMoved == 0) {
 			if (attacker.getRanks() > 1 
-					&& attacker.getTotalWidth() < defender.getPerimeter()) 
+					&& attacker.getTotalWidthPips() < defender.getPerimeterPips()) 
 			{
 				int newFiles = Math.min(
 					attacker.getFiles() + 6, attacker.getFigures());
@@ -1352,11 +2648,11 @@ public class BookOfWar {
 		}
 
  		// Attack if in contact
- 		if (distance == 0) {
+ 		if (game.distance == 0) {
 			checkMeleeSpecials(attacker, defender);
  			meleeAttack(attacker, defender);
 			checkMeleeShot(attacker, defender, distMoved);
-			priorContact = true;
+			game.priorContact = true;
  		}
 	}
 
@@ -1364,7 +2660,7 @@ public class BookOfWar {
 		Try to make shot in melee, if possible.
 	*/
 	private void checkMeleeShot(Unit attacker, Unit defender, int distMoved) {
-		assert distance == 0;
+		assert game.distance == 0;
 		if (bothUnitsLive(attacker, defender)
 			&& attacker.hasSpecial(SpecialType.MeleeShot) 
 			&& minDistanceToShoot(attacker, defender) > 0
@@ -1378,7 +2674,7 @@ public class BookOfWar {
 		Make special checks on initial contact.
 	*/
 	private void checkInitialContact(Unit attacker, Unit defender) {
-		assert distance == 0;
+		assert game.distance == 0;
 
 		// Check for defender pikes
 		if (defender.hasSpecial(SpecialType.Pikes)) {
@@ -1392,15 +2688,15 @@ public class BookOfWar {
 	private void checkPikeInterrupt(Unit attacker, Unit defender) {
 		if (bothUnitsLive(attacker, defender)
 				&& isPikeAvailable(defender) 
-				&& !(random.nextDouble() < PIKE_FLANK_CHANCE)
+				&& !(game.random.nextDouble() < PIKE_FLANK_CHANCE)
 				&& !(getsRearAttack(attacker, defender))) 
 		{
-			reportDetail("** PIKES INTERRUPT ATTACK **");
-			pikesInterrupt = true;
+			observer.onPikesInterrupt(defender, attacker);
+			game.pikesInterrupt = true;
 			attacker.clearFigsLostInTurn();
 			meleeAttack(defender, attacker);
 			checkMoraleEndTurn(attacker);
-			pikesInterrupt = false;
+			game.pikesInterrupt = false;
 		}
 	}
 
@@ -1418,7 +2714,7 @@ public class BookOfWar {
 		boolean outranged = (minShotDist < minShotDistEnemy);
 
 		// Move to shooting distance
-		if (distance > minShotDist && wantsToMove) {
+		if (game.distance > minShotDist && wantsToMove) {
 
 			// If enemy outranges us, better to go full speed to our range
 			// Otherwise we step forward half-speed to get first shot
@@ -1428,7 +2724,7 @@ public class BookOfWar {
 		}
 
 		// Fire if permitted
-		if (distance <= minShotDist) {
+		if (game.distance <= minShotDist) {
 			if (distMoved == 0) {
 				rangedAttack(attacker, defender, true);
 			}
@@ -1458,7 +2754,7 @@ public class BookOfWar {
 		if (!attacker.hasMissiles()
 			|| !terrainPermitShots()
 			|| isAttackImmune(attacker, defender)
-			|| (weather == Weather.Rainy 
+			|| (game.weather == Weather.Rainy 
 				&& attacker.hasSpecial(SpecialType.NoRainShot)))
 		{
       	return 0;
@@ -1485,15 +2781,15 @@ public class BookOfWar {
 		Get the effective armor for shooting at a target.
 	*/
 	private int getArmorForShot(Unit target) {
-		return target.isLoneLeader() 
-			? target.getLeader().getArmor() : target.getArmor();
+		return target.getTarget().getArmor();
 	}
 
 	/**
 		Does terrain permit shooting?
 	*/
 	private boolean terrainPermitShots() {
-		return !(terrain == Terrain.Woods || terrain == Terrain.Gulley);
+		return !(game.terrain == Terrain.Woods
+			|| game.terrain == Terrain.Gulley);
 	}
 
 	/**
@@ -1505,7 +2801,9 @@ public class BookOfWar {
 		int moveCost = getTerrainMoveCost();
 			
 		// Swimmers ignore streams
-		if (unit.hasSpecial(SpecialType.Swimming) && terrain == Terrain.Stream) {
+		if (unit.hasSpecial(SpecialType.Swimming)
+			&& game.terrain == Terrain.Stream)
+		{
 			moveCost = 1;
 		}
 
@@ -1515,7 +2813,7 @@ public class BookOfWar {
 		}
 
 		// Weather modifier
-		if (weather == Weather.Rainy) {
+		if (game.weather == Weather.Rainy) {
 			moveCost *= 2;
 		}
 
@@ -1538,7 +2836,7 @@ public class BookOfWar {
 		Get terrain movement cost.
 	*/
 	private int getTerrainMoveCost() {
-		switch (terrain) {
+		switch (game.terrain) {
 			default: return 1;
 			case Hill: case Gulley: case Rough: case Woods: return 2;
 			case Marsh: return 3;
@@ -1553,10 +2851,10 @@ public class BookOfWar {
 	private int getTeleportMove(Unit unit) {
 		assert unit.canTeleport();
 		int teleportRange = unit.getSpecialParam(SpecialType.Teleport);
-		if (distance < teleportRange) {
-			reportDetail(unit + " * TELEPORTS * into combat");
+		if (game.distance < teleportRange) {
+			observer.onTeleport(unit);
 			unit.decrementCharges();
-			return distance;
+			return game.distance;
 		}
 		else {
 			return 1;
@@ -1577,20 +2875,26 @@ public class BookOfWar {
 		// (only handle one side with solo leader)
 		if (attacker.hasActiveLeader()) {
 			assert !defender.hasActiveLeader();
-			meleeAttack(attacker.getLeader(), defender);
+			meleeStrike(attacker.getLeader(), defender);
 		}
 
-		// Jump out if we have no attacks
-		if (attacker.getAttacks() == 0 || attacker.isNormalBeaten()) {
-			return;
+		// Main body attacks (a lone leader if that is all that's left)
+		if (!attacker.isNormalBeaten()) {
+			meleeStrike(attacker, defender.getTarget());
 		}
+	}
 
-		// If target reduced to just leader, attack them
-		if (defender.isLoneLeader()) {
-			meleeAttack(attacker, defender.getLeader());
+	/**
+		Play out melee attacks by one set of figures on one target.
+		Leaders are resolved by the caller.
+	*/
+	private void meleeStrike(Unit attacker, Unit defender) {
+
+		// Jump out if we have no attacks
+		if (attacker.getAttacks() == 0) {
 			return;
 		}
-		
+
 		// Compute number of attackers (possibly one vs. leader)
 		int figsAtk = countFiguresInContact(attacker, defender);
 
@@ -1601,7 +2905,7 @@ public class BookOfWar {
 
 		// Check for defender immune
 		if (isAttackImmune(attacker, defender)) {
-			reportDetail(attacker + " barred from attacking " + defender);
+			observer.onAttackBarred(attacker, defender, false);
 			return;
 		}
 
@@ -1622,7 +2926,7 @@ public class BookOfWar {
 
 		// Apply damage
 		int damagePerHit = attacker.getDamage();
-		if (pikesInterrupt) {
+		if (game.pikesInterrupt) {
 			damagePerHit *= 2;
 		}
 		if (CAP_DAMAGE_BY_HEALTH) {
@@ -1643,12 +2947,13 @@ public class BookOfWar {
 		Assumes wrapping after initial contact.
 	*/
 	private int countFiguresInContact(Unit attacker, Unit defender) {
-		assert distance == 0;
-		double atkWidth = attacker.getTotalWidth();
-		double defWidth = priorContact 
-			? defender.getPerimeter() : defender.getTotalWidth();
+		assert game.distance == 0;
+		int atkWidth = attacker.getTotalWidthPips();
+		int defWidth = game.priorContact 
+			? defender.getPerimeterPips() : defender.getTotalWidthPips();
+		int figWidth = attacker.getFigWidthPips();
 		int figsAtk = (atkWidth <= defWidth) ? attacker.getFiles()
-			: (int) Math.ceil(defWidth / attacker.getFigWidth());
+			: (defWidth + figWidth - 1) / figWidth;
 		if (defender.isSmallTarget()) {
 			int figsDef = defender.getFigures()
 				+ (defender.hasActiveLeader() ? 1 : 0);
@@ -1667,34 +2972,42 @@ public class BookOfWar {
 		// Check preconditions
 		assert !attacker.isTotallyBeaten();
 		assert attacker.hasMissiles();
-		assert distance <= attacker.getRange();
-		assert distance > 0 || attacker.hasSpecial(SpecialType.MeleeShot);
+		assert game.distance <= attacker.getRange();
+		assert game.distance > 0
+			|| attacker.hasSpecial(SpecialType.MeleeShot);
 		assert !defender.hasActiveHost();
 
-		// Check for lone leader target
-		if (defender.isLoneLeader()) {
-			rangedAttack(attacker, defender.getLeader(), fullRate);
-			return;
-		}
+		// Shoot at lone leader if that is all that's left
+		Unit target = defender.getTarget();
 
 		// Give shot to attacker leader
 		if (attacker.hasActiveLeader()) {
 			Solo leader = attacker.getLeader();
 			if (leader.hasMissiles()
-				&& distance <= leader.getRange())
+				&& game.distance <= leader.getRange())
 			{
-				rangedAttack(attacker.getLeader(), defender, fullRate);
+				rangedStrike(leader, target, fullRate);
 			}
 		}
 
+		// Main body shoots
+		rangedStrike(attacker, target, fullRate);
+	}
+
+	/**
+		Play out ranged attacks by one set of figures on one target.
+		Leaders are resolved by the caller.
+	*/
+	private void rangedStrike(Unit attacker, Unit defender, boolean fullRate) {
+
 		// Check for defender immune
 		if (isAttackImmune(attacker, defender)) {
-			reportDetail(attacker + " barred from shooting " + defender);
+			observer.onAttackBarred(attacker, defender, true);
 			return;
 		}
 
 		// Measure range & get modifier
-		int rangeMod = (distance <= attacker.getRange() / 2)
+		int rangeMod = (game.distance <= attacker.getRange() / 2)
 			? 0 : -1;
 
 		// Compute number of dice to roll
@@ -1777,7 +3090,7 @@ public class BookOfWar {
 		// Mounts & pikes get half dice in bad terrain
 		if ((attacker.hasSpecial(SpecialType.Mounts) 
 				|| attacker.hasSpecial(SpecialType.Pikes))
-			&& (terrain != Terrain.Open || weather == Weather.Rainy)) 
+			&& (game.terrain != Terrain.Open || game.weather == Weather.Rainy)) 
 		{
 			atkDice /= 2;
 		}
@@ -1800,13 +3113,13 @@ public class BookOfWar {
 		int bonus = 0;
 
 		// Rainy day weather missile penalty
-		if (ranged && weather == Weather.Rainy)  {
+		if (ranged && game.weather == Weather.Rainy)  {
 			bonus -= 1;
 		}
 
 		// Orcs & goblins penalty in sunlight
 		if (attacker.hasSpecial(SpecialType.LightWeakness) 
-			&& weather == Weather.Sunny) 
+			&& game.weather == Weather.Sunny) 
 		{
 			bonus -= 1;
 		}
@@ -1858,7 +3171,7 @@ public class BookOfWar {
 		// Slow flyers & teleporters get it on first contact only
 		if ((attacker.hasSpecial(SpecialType.Flight)
 				|| attacker.hasSpecial(SpecialType.Teleport))
-			&& !priorContact)
+			&& !game.priorContact)
 		{
 			return true;
 		}
@@ -1871,10 +3184,8 @@ public class BookOfWar {
 	*/
 	private boolean isAttackImmune(Unit attacker, Unit defender) {
 
-		// Check for lone leader target
-		if (defender.isLoneLeader()) {
-			return isAttackImmune(attacker, defender.getLeader());
-		}
+		// Check lone leader target
+		defender = defender.getTarget();
 
 		// Invisible units can't be attacked
 		if (!defender.isVisible()) {
@@ -1888,7 +3199,7 @@ public class BookOfWar {
 
 		// Check ranged attack vs. missile ward 
 		// (protection against normal missiles spell)
-		if (distance > 0 && attacker.getDamage() <= 1 
+		if (game.distance > 0 && attacker.getDamage() <= 1 
 			&& defender.hasSpecial(SpecialType.MissileWard)) 
 		{
 			return true;
@@ -1919,9 +3230,9 @@ public class BookOfWar {
 	private boolean isPikeAvailable(Unit unit) {
 		return unit.hasSpecial(SpecialType.Pikes)
 			&& !unit.isNormalBeaten()
-			&& terrain == Terrain.Open
-			&& weather != Weather.Rainy
-			&& !priorContact;
+			&& game.terrain == Terrain.Open
+			&& game.weather != Weather.Rainy
+			&& !game.priorContact;
 	}
 
 	/**
@@ -1964,11 +3275,10 @@ public class BookOfWar {
 		int total = roll + bonus;
 
 		// Check and report
-		reportDetail("Morale check (" + unit + "): " 
-			+ roll + " + " + bonus + " = " + total);
+		observer.onMorale(unit, roll, bonus);
 		if (total < MORALE_TARGET) {
 			unit.setRouted(true);
-			reportDetail(unit + " are * ROUTED *");
+			observer.onRout(unit);
 		}
 	}
 
@@ -1992,7 +3302,7 @@ public class BookOfWar {
 
 		// Light weakness (orcs & goblins)
 		if (unit.hasSpecial(SpecialType.LightWeakness) 
-			&& weather == Weather.Sunny) 
+			&& game.weather == Weather.Sunny) 
 		{
 			bonus -= 1;
 		}
@@ -2018,44 +3328,46 @@ public class BookOfWar {
 	*/
 	private void checkVision(Unit spotter, Unit target) {
 		if (!target.isVisible() 
-			&& spotter.getSpecialParam(SpecialType.Detection) >= distance)
+			&& spotter.getSpecialParam(SpecialType.Detection)
+				>= game.distance)
 		{
 			target.setVisible(true);		
 		}
 	}
 
 	/**
-		Randomize terrain.
+		Roll a random terrain type.
 		Assume just one terrain type across entire field.
 		Percents match coverage of entire table.
+		Shared with the batch engine so both draw the same distribution.
 	*/
-	private void randomizeTerrain() {
+	static Terrain rollTerrain(Random random) {
 		int roll = (int) (random.nextDouble() / TERRAIN_MULTIPLIER * 100);
 
 		// These percents are for entire table
-		if (roll < 1) { terrain = Terrain.Gulley; }
-		else if (roll < 3) { terrain = Terrain.Rough; }
-		else if (roll < 9) { terrain = Terrain.Hill; }
-		else if (roll < 17) { terrain = Terrain.Woods; }
-		else if (roll < 20) { terrain = Terrain.Marsh; }
-		else if (roll < 22) { terrain = Terrain.Stream; }
-		else { terrain = Terrain.Open; }
+		if (roll < 1) { return Terrain.Gulley; }
+		else if (roll < 3) { return Terrain.Rough; }
+		else if (roll < 9) { return Terrain.Hill; }
+		else if (roll < 17) { return Terrain.Woods; }
+		else if (roll < 20) { return Terrain.Marsh; }
+		else if (roll < 22) { return Terrain.Stream; }
+		else { return Terrain.Open; }
 		
 		// Note: Pond type is not used (impassable)
 	}
 
 	/**
-		Randomize weather.
+		Roll a random weather type.
 		Compare to determination in Chainmail (p. 22).
 	*/
-	private void randomizeWeather() {
-		switch (d6()) {
+	static Weather rollWeather(Random random) {
+		switch (random.nextInt(6) + 1) {
 			case 1: case 2: case 3:
-				weather = Weather.Sunny; break;
+				return Weather.Sunny;
 			case 4: case 5: 
-				weather = Weather.Cloudy; break;
+				return Weather.Cloudy;
 			default: 
-				weather = Weather.Rainy; break;
+				return Weather.Rainy;
 		}
 	}
 
@@ -2063,7 +3375,7 @@ public class BookOfWar {
 		Roll a 6-sided die.
 	*/
 	private int d6() {
-		return random.nextInt(6) + 1;
+		return game.random.nextInt(6) + 1;
 	}
 
 	/**
@@ -2077,7 +3389,7 @@ public class BookOfWar {
 		Roll an arbitrary-sided die.
 	*/
 	private int rollDie(int sides) {
-		return random.nextInt(sides) + 1;
+		return game.random.nextInt(sides) + 1;
 	}
 
 	/**
@@ -2146,7 +3458,7 @@ public class BookOfWar {
 	private void makeVisible(Unit atk) {
 		if (!atk.isVisible()) {
 			atk.setVisible(true);		
-			reportDetail(atk + " become visible!");
+			observer.onVisible(atk);
 		}
 	}
 
@@ -2181,12 +3493,12 @@ public class BookOfWar {
 		Check the fear effect of dragons as they make contact.
 	*/
 	private void checkFearAbility(Unit attacker, Unit defender) {
-		assert distance == 0;
+		assert game.distance == 0;
 		assert attacker.hasSpecial(SpecialType.Fear);
 		if (!attacker.isNormalBeaten()
 			&& !defender.isFearless()) 
 		{
-			reportDetail(defender + " confronts * FEAR * ability");
+			observer.onFear(defender);
 			checkMorale(defender, 0);
 			defender.setSavedVsFear(true);
 		}
@@ -2213,7 +3525,7 @@ public class BookOfWar {
 		// Storm giants control weather
 		if (attacker.hasSpecial(SpecialType.WeatherControl)
 			&& attacker.getCharges() > 0
-			&& weather != getTargetWeather(attacker, defender))
+			&& game.weather != getTargetWeather(attacker, defender))
 		{
 			castControlWeather(attacker, defender);
 			attacker.decrementCharges();
@@ -2256,7 +3568,7 @@ public class BookOfWar {
 		
 		// Cast Control Weather if it benefits us
 		if (attacker.numSpellsCast() == 0
-			&& weather != getTargetWeather(attacker, defender))
+			&& game.weather != getTargetWeather(attacker, defender))
 		{
 			castControlWeather(attacker, defender);
 			attacker.decrementCharges();
@@ -2265,8 +3577,8 @@ public class BookOfWar {
 
 		// Cast Move Earth if it benefits us
 		if (attacker.numSpellsCast() == 1
-			&& terrain == Terrain.Open
-			&& random.nextDouble() <= CHANCE_HILL_NEARBY)
+			&& game.terrain == Terrain.Open
+			&& game.random.nextDouble() <= CHANCE_HILL_NEARBY)
 		{
 			castMoveEarth(attacker);
 			attacker.decrementCharges();
@@ -2274,7 +3586,7 @@ public class BookOfWar {
 		}
 
 		// Cast Death Spell otherwise
-		if (distance <= 24 
+		if (game.distance <= 24 
 			&& defender.getHealth() <= 8
 			&& !defender.getsSaves())
 		{
@@ -2294,13 +3606,13 @@ public class BookOfWar {
 		assert attacker.hasSpecial(SpecialType.Wand);
 
 		// If out of range, move forward a bit.
-		if (distance > WAND_RANGE) {
-			distance--;
+		if (game.distance > WAND_RANGE) {
+			game.distance--;
 			return;		
 		}
 		
 		// Shoot two lightning bolts per turn at target
-		reportDetail(attacker + " shoots two * LIGHTNING *");
+		observer.onWandFire(attacker);
 		int numShots = attacker.getFigures() * 2;
 		for (int shot = 0; shot < numShots; shot++) {
 			if (checkWandHit(defender)) {
@@ -2314,14 +3626,14 @@ public class BookOfWar {
 		Target center of unit & check variation.
 	*/
 	private boolean checkWandHit(Unit target) {
-		assert distance <= WAND_RANGE;
+		assert game.distance <= WAND_RANGE;
 	
 		// Get the shot error
-		double shotError;
-		if (distance > WAND_RANGE / 2) {
+		int shotError;
+		if (game.distance > WAND_RANGE / 2) {
 			shotError = Math.abs(roll2d6() - 7);
 		}
-		else if (distance > WAND_RANGE / 4) {
+		else if (game.distance > WAND_RANGE / 4) {
 			shotError = Math.abs(rollDie(3) + rollDie(3) - 4);
 		}
 		else {
@@ -2329,7 +3641,8 @@ public class BookOfWar {
 		}
 		
 		// See if error is within length of target
-		return shotError <= target.getTotalLength() / 2;
+		return 2 * shotError * Unit.WIDTH_UNITS_PER_INCH
+			<= target.getTotalLengthPips();
 	}
 
 	/**
@@ -2337,22 +3650,22 @@ public class BookOfWar {
 		Assume this can move a Hill into a protective position for caster.
 	*/
 	private void castMoveEarth(Unit attacker) {
-		assert terrain == Terrain.Open;
-		terrain = Terrain.Hill;
-		reportDetail(attacker + " casts * MOVE EARTH * to get " + terrain);
+		assert game.terrain == Terrain.Open;
+		game.terrain = Terrain.Hill;
+		observer.onMoveEarth(attacker, game.terrain);
 	}
 
 	/**
 		Cast a Death Spell on the defending unit.
 	*/
 	private void castDeathSpell(Unit attacker, Unit defender) {
-		assert distance <= 24;
+		assert game.distance <= 24;
 		assert defender.getHealth() <= 8;
 		assert !defender.getsSaves();
 		int numCasters = attacker.getFigures();
 		int damage = numCasters * DEATH_SPELL_DAMAGE;
 		defender.takeDamage(damage);
-		reportDetail(attacker + " casts * DEATH SPELL * on " + defender);
+		observer.onDeathSpell(attacker, defender);
 	}
 
 	/**
@@ -2361,13 +3674,13 @@ public class BookOfWar {
 	private void castControlWeather(Unit attacker, Unit defender) {
 		assert attacker.hasSpecial(SpecialType.Spells)
 			|| attacker.hasSpecial(SpecialType.WeatherControl);
-		assert weather != getTargetWeather(attacker, defender);
+		assert game.weather != getTargetWeather(attacker, defender);
 		int castings = 0;
 		while (castings < attacker.getFigures()
-			&& weather != getTargetWeather(attacker, defender)) 
+			&& game.weather != getTargetWeather(attacker, defender)) 
 		{
-			weather = getTargetWeather(attacker, defender);
-			reportDetail(attacker + " casts * CONTROL WEATHER * for " + weather);
+			game.weather = getTargetWeather(attacker, defender);
+			observer.onControlWeather(attacker, game.weather);
 			castings++;
 		}
 	}
@@ -2394,7 +3707,7 @@ public class BookOfWar {
 		Get weather one step wetter than current.
 	*/
 	private Weather incWeather() {
-		switch (weather) {
+		switch (game.weather) {
 			case Sunny: return Weather.Cloudy;
 			default: return Weather.Rainy;
 		}
@@ -2404,7 +3717,7 @@ public class BookOfWar {
 		Get weather one step dryer than current.
 	*/
 	private Weather decWeather() {
-		switch (weather) {
+		switch (game.weather) {
 			case Rainy: return Weather.Cloudy;
 			default: return Weather.Sunny;
 		}
@@ -2441,20 +3754,20 @@ public class BookOfWar {
 	private void useBreathWeapon(Unit attacker, Unit defender) {
 
 		// Check preconditions
-		assert distance == 0;
+		assert game.distance == 0;
 		assert attacker.hasBreathWeapon();
 		assert attacker.getCharges() > 0;	
 	
 		// Determine how many figures hit (2" length)
-		final double breathLength = 2.0;
-		int hitPerAtkr = (int) (breathLength / defender.getFigLength());
+		final int breathLength = 2 * Unit.WIDTH_UNITS_PER_INCH;
+		int hitPerAtkr = breathLength / defender.getFigLengthPips();
 		hitPerAtkr = Math.min(hitPerAtkr, defender.getRanks());
 		hitPerAtkr = Math.max(hitPerAtkr, 1);
 		int numHit = hitPerAtkr * countFiguresInContact(attacker, defender);
 
 		// Cast the energy attack
 		SpecialAbility breath = attacker.getBreathWeapon();
-		reportDetail(attacker + " uses " + breath);
+		observer.onBreath(attacker, breath);
 		castEnergy(defender, numHit, breath.getParam(),
 			getBreathEnergy(breath.getType()));
 		attacker.decrementCharges();
@@ -2466,10 +3779,10 @@ public class BookOfWar {
 	private void castEnergy(
 		Unit unit, int numFigs, int dmgPerFig, EnergyType energy) 
 	{
-		// Check for lone leader
+		// Check for lone leader (one figure)
 		if (unit.isLoneLeader()) {
-			castEnergy(unit.getLeader(), 1, dmgPerFig, energy);
-			return;
+			unit = unit.getLeader();
+			numFigs = 1;
 		}
 
 		// Check for immunity or magic resistance
@@ -2483,7 +3796,7 @@ public class BookOfWar {
 		if (unit.getsSaves()) {
 			int roll = roll2d6();
 			if (roll >= dmgPerFig) {
-				reportDetail(unit + " saves versus " + energy);
+				observer.onEnergySave(unit, energy);
 				return;
 			}	
 		}
@@ -2492,7 +3805,7 @@ public class BookOfWar {
 		dmgPerFig = Math.min(dmgPerFig, unit.getHealth());
 		int damage = dmgPerFig * numFigs;
 		int figsLost = unit.takeDamage(damage);
-		reportDetail(unit + " lost " + figsLost + " figures from " + energy);
+		observer.onEnergyDamage(unit, figsLost, energy);
 	}
 
 	/**
@@ -2536,20 +3849,20 @@ public class BookOfWar {
 
 		// Concede if opponent is not a 1-health type.
 		if (!defender.isSweepable()) {
-			reportDetail(attacker + " * RETREATS *");
+			observer.onRetreat(attacker);
 			attacker.setRouted(true);
 			return;
 		}
 
 		// If out of range, move up half.
-		if (distance >= getMove(attacker)) {
-			distance -= getMove(attacker) / 2;
+		if (game.distance >= getMove(attacker)) {
+			game.distance -= getMove(attacker) / 2;
 			return;
 		}
 
 		// If not alternate turn, move back a bit.
 		if (d6() <= 3) {
-			distance += getMove(attacker) / 4;
+			game.distance += getMove(attacker) / 4;
 			return;
 		}	
 	
@@ -2562,12 +3875,11 @@ public class BookOfWar {
 				numKilled++;
 			}
 		}
-		reportDetail(attacker + " whirlwind sweeps away " 
-			+ numKilled + " figures");
+		observer.onWhirlwind(attacker, numKilled);
 		defender.takeDamage(numKilled);
 		
 		// Move as much as possible to other side of target
-		distance = getMove(attacker) - distance;
+		game.distance = getMove(attacker) - game.distance;
 		return;
 	}
 
@@ -2587,29 +3899,41 @@ public class BookOfWar {
 	//-----------------------------------------------------------------
 
 	/**
-		Check if any thread in an array is live.
+		Make a new set of worker simulators copying our settings.
+		Called again after units are reloaded, so workers never 
+		hold stale unit lists.
 	*/
-	private boolean isAnyThreadLive(Thread[] threads) {
-		for (Thread t: threads) {
-			if (t.isAlive()) {
-				return true;
-			}
-		}
-		return false;
+	private ThreadLocal<BookOfWar> newWorkerSims() {
+		return ThreadLocal.withInitial(() -> new BookOfWar(this));
+	}
+
+	/**
+		Get the worker simulator for the current thread.
+		Built on first use & reused for every later series.
+	*/
+	BookOfWar getWorkerSim() {
+		return workerSims.get();
 	}
 
 	/**
-		Wait for all threads in an array to finish.
+		Reseed the random number generator for the next games.
 	*/
-	private void waitForThreads(Thread[] threads) {
-		while (isAnyThreadLive(threads)) {
+	void setSeed(long seed) {
+		game.random.setSeed(seed);
+	}
+
+	/**
+		Wait for all queued tasks in a list to finish.
+	*/
+	private void waitForAll(List<Future<?>> futures) {
+		for (Future<?> f: futures) {
 			try {
-				Thread.sleep(10);
+				f.get();
 			}
 			catch (Exception e) {
-				System.err.println("Exception in waitForThreads: " + e);
+				System.err.println("Exception in waitForAll: " + e);
 			}
-		}	
+		}
 	}
 }
 
@@ -2622,7 +3946,7 @@ public class BookOfWar {
 */
 class SeriesRunner implements Runnable {
 
-	/** Simulator object. */
+	/** Simulator that owns the worker threads. */
 	private BookOfWar bowSim;
 	
 	/** Unit we want to assess. */
@@ -2631,27 +3955,51 @@ class SeriesRunner implements Runnable {
 	/** Opposition force against our test unit. */
 	private Unit oppUnit;
 	
-	/** Ratio of times our test unit wins. */
-	private double testUnitWinRatio;
+	/** Number of games in this chunk of the series. */
+	private int trials;
+
+	/** Index of this chunk's first game in the series. */
+	private int firstGame;
+
+	/** Accumulator for the whole series. */
+	private SeriesTally tally;
+
+	/** Index of this chunk in the series. */
+	private int chunk;
+
+	/** Figure plan for every game (or NO_FIGURE_PLAN). */
+	private long figurePlan;
 
 	/** Constructor. */
-	SeriesRunner(BookOfWar pBowSim, Unit pTestUnit, Unit pOppUnit) {
-		bowSim = new BookOfWar(pBowSim);
-		testUnit = pTestUnit instanceof Solo
-			? new Solo((Solo) pTestUnit) : new Unit(pTestUnit);
+	SeriesRunner(BookOfWar pBowSim, Unit pTestUnit, Unit pOppUnit,
+		int pTrials, int pFirstGame, SeriesTally pTally, int pChunk) 
+	{
+		this(pBowSim, pTestUnit, pOppUnit, pTrials, pFirstGame, pTally, 
+			pChunk, BookOfWar.NO_FIGURE_PLAN);
+	}
+
+	/** Constructor (with figure plan). */
+	SeriesRunner(BookOfWar pBowSim, Unit pTestUnit, Unit pOppUnit,
+		int pTrials, int pFirstGame, SeriesTally pTally, int pChunk, 
+		long pFigurePlan) 
+	{
+		bowSim = pBowSim;
+		testUnit = new Unit(pTestUnit);
 		oppUnit = new Unit(pOppUnit);
+		trials = pTrials;
+		firstGame = pFirstGame;
+		tally = pTally;
+		chunk = pChunk;
+		figurePlan = pFigurePlan;
 	}
 
-	/** Run this series of fights. */
+	/** Run this chunk of fights & merge into the series tally. */
 	@Override
 	public void run() {
-		testUnitWinRatio = testUnit.equals(oppUnit) 
-			? 0.5 : bowSim.playSeries(testUnit, oppUnit);
-	}
-	
-	/** Get the win ratio result. */
-	public double getTestUnitWinRatio() {
-		return testUnitWinRatio;
+		BookOfWar sim = bowSim.getWorkerSim();
+		sim.setSeed(tally.getChunkSeed(chunk));
+		tally.merge(sim.playSeries(testUnit, oppUnit, trials, firstGame,
+			figurePlan));
 	}
 }
 
@@ -0,0 +1,177 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+	Cache of game results by figure counts.
+
+	Cost enters a game only through the figures each side buys with
+	its budget (see BookOfWar.initUnit), so a game is set by the two
+	unit types, the figures on each side (with any leader), and the
+	battlefield. Cells here hold results for one such figure plan,
+	keyed by both units' statistics less cost. A docket at any cost
+	is a weighted sum of cells over the budget range, and every cost
+	that buys the same figures shares the same cells.
+
+	A figure plan packs the figures & leader figure of both sides
+	into one long (see makePlan).
+
+	@author agent
+	@since 2026-10-18
+*/
+
+public class FigureCache {
+
+	//----------------------------------------------------------------------
+	//  Constants
+	//----------------------------------------------------------------------
+
+	/** Bits per side in a figure plan. */
+	private static final int SIDE_BITS = 31;
+
+	/** Mask for figures in one side of a plan. */
+	private static final int FIGURE_MASK = (1 << (SIDE_BITS - 1)) - 1;
+
+	/** Bit for a leader figure in one side of a plan. */
+	private static final int LEADER_BIT = 1 << (SIDE_BITS - 1);
+
+	//----------------------------------------------------------------------
+	//  Fields
+	//----------------------------------------------------------------------
+
+	/** Results by cell key. */
+	private final Map<Long, SeriesResult> cells
+		= new HashMap<Long, SeriesResult>();
+
+	/** Cell lookups this run. */
+	private int lookups;
+
+	/** Cell lookups that needed more games this run. */
+	private int misses;
+
+	//----------------------------------------------------------------------
+	//  Methods
+	//----------------------------------------------------------------------
+
+	/**
+		Make a figure plan.
+		@param figs1 figures in first unit.
+		@param leader1 leader figures in first unit (0 or 1).
+		@param figs2 figures in second unit.
+		@param leader2 leader figures in second unit (0 or 1).
+		@return packed figure plan.
+	*/
+	public static long makePlan(int figs1, int leader1,
+		int figs2, int leader2)
+	{
+		return packSide(figs1, leader1)
+			| ((long) packSide(figs2, leader2) << SIDE_BITS);
+	}
+
+	/**
+		Pack one side of a figure plan.
+	*/
+	private static int packSide(int figs, int leader) {
+		assert 0 <= figs && figs <= FIGURE_MASK;
+		assert leader == 0 || leader == 1;
+		return figs | (leader == 0 ? 0 : LEADER_BIT);
+	}
+
+	/**
+		Get the figures for one side of a plan.
+		@param plan packed figure plan.
+		@param side side index (0 = first unit).
+		@return number of normal figures.
+	*/
+	public static int getFigures(long plan, int side) {
+		return (int) (plan >>> (SIDE_BITS * side)) & FIGURE_MASK;
+	}
+
+	/**
+		Get the leader figures for one side of a plan.
+		@param plan packed figure plan.
+		@param side side index (0 = first unit).
+		@return number of leader figures (0 or 1).
+	*/
+	public static int getLeaderFigures(long plan, int side) {
+		return ((int) (plan >>> (SIDE_BITS * side)) & LEADER_BIT) == 0
+			? 0 : 1;
+	}
+
+	/**
+		Make the cell key for a matchup at a figure plan.
+		@param unit1 first unit (results are from its viewpoint).
+		@param unit2 second unit.
+		@param plan packed figure plan.
+		@return 64-bit cell key.
+	*/
+	public static long makeKey(Unit unit1, Unit unit2, long plan) {
+		long h = Fingerprint.add(Fingerprint.START,
+			unit1.getStatsFingerprint());
+		h = Fingerprint.add(h, unit2.getStatsFingerprint());
+		return Fingerprint.add(h, plan);
+	}
+
+	/**
+		Get trials recorded for a cell, counting a lookup.
+		@param key cell key.
+		@param needed trials wanted for the cell.
+		@return trials recorded so far.
+	*/
+	public synchronized int lookup(long key, int needed) {
+		SeriesResult cell = cells.get(key);
+		int trials = cell == null ? 0 : cell.getTrials();
+		lookups++;
+		if (trials < needed) {
+			misses++;
+		}
+		return trials;
+	}
+
+	/**
+		Add games to a cell.
+		@param key cell key.
+		@param result record of new games at the cell's plan.
+	*/
+	public synchronized void add(long key, SeriesResult result) {
+		SeriesResult cell = cells.get(key);
+		if (cell == null) {
+			cell = new SeriesResult();
+			cells.put(key, cell);
+		}
+		cell.merge(result);
+	}
+
+	/**
+		Get the win ratio for a cell (draws count half).
+		@param key cell key.
+		@return win ratio for the first unit (0.5 if no trials).
+	*/
+	public synchronized double getWinRatio(long key) {
+		SeriesResult cell = cells.get(key);
+		return cell == null ? 0.5 : cell.getWinRatio();
+	}
+
+	/**
+		Get the number of cell lookups this run.
+		@return lookups made.
+	*/
+	public synchronized int getLookups() {
+		return lookups;
+	}
+
+	/**
+		Get the number of cell lookups that needed more games.
+		@return lookups not served from cache.
+	*/
+	public synchronized int getMisses() {
+		return misses;
+	}
+
+	/**
+		Get the number of cells.
+		@return cells in cache.
+	*/
+	public synchronized int size() {
+		return cells.size();
+	}
+}
@@ -0,0 +1,181 @@
+/**
+	Observer of events in one game.
+
+	Every event has an empty default, so an observer implements only
+	the events it cares about. The simulator holds NONE unless a game
+	is being watched; calls to it inline away to nothing, and no text
+	is built for events nobody reads.
+
+	@author agent
+	@since 2026-10-18
+*/
+
+public interface GameObserver {
+
+	/** Observer that ignores all events. */
+	GameObserver NONE = new GameObserver() { };
+
+	/**
+		Battlefield has been set up.
+		@param terrain terrain for the battle.
+		@param weather weather for the battle.
+		@param distance starting distance between units.
+	*/
+	default void onBattlefield(BookOfWar.Terrain terrain,
+		BookOfWar.Weather weather, int distance) { }
+
+	/**
+		Units have been bought for the game.
+		@param budget budget used for each side.
+		@param unit1 first unit.
+		@param unit2 second unit.
+	*/
+	default void onUnitsReady(int budget, Unit unit1, Unit unit2) { }
+
+	/**
+		Unit has moved.
+		@param unit unit that moved.
+		@param distance new distance between units.
+		@param forward true if moved toward the enemy.
+	*/
+	default void onMove(Unit unit, int distance, boolean forward) { }
+
+	/**
+		Unit has teleported into combat.
+		@param unit unit that teleported.
+	*/
+	default void onTeleport(Unit unit) { }
+
+	/**
+		Attack is about to be resolved (followed by onDamage).
+		@param attacker attacking unit.
+		@param defender defending unit.
+		@param ranged true for a missile attack.
+	*/
+	default void onAttack(Unit attacker, Unit defender, boolean ranged) { }
+
+	/**
+		Attack is barred by defender immunity.
+		@param attacker attacking unit.
+		@param defender defending unit.
+		@param ranged true for a missile attack.
+	*/
+	default void onAttackBarred(Unit attacker, Unit defender,
+		boolean ranged) { }
+
+	/**
+		Damage from an attack has been applied.
+		@param defender unit that took damage.
+		@param figsKilled number of figures killed.
+	*/
+	default void onDamage(Unit defender, int figsKilled) { }
+
+	/**
+		Pikes make an interrupting attack on a charge.
+		@param pikes unit with pikes.
+		@param attacker charging unit.
+	*/
+	default void onPikesInterrupt(Unit pikes, Unit attacker) { }
+
+	/**
+		Morale check has been rolled.
+		@param unit unit checking morale.
+		@param roll dice roll.
+		@param bonus total bonus.
+	*/
+	default void onMorale(Unit unit, int roll, int bonus) { }
+
+	/**
+		Unit has routed.
+		@param unit routed unit.
+	*/
+	default void onRout(Unit unit) { }
+
+	/**
+		Unit has retreated from the field by choice.
+		@param unit retreating unit.
+	*/
+	default void onRetreat(Unit unit) { }
+
+	/**
+		Invisible unit has become visible.
+		@param unit newly visible unit.
+	*/
+	default void onVisible(Unit unit) { }
+
+	/**
+		Unit confronts a fear ability.
+		@param unit unit checking against fear.
+	*/
+	default void onFear(Unit unit) { }
+
+	/**
+		Caster changes the weather.
+		@param caster casting unit.
+		@param weather new weather.
+	*/
+	default void onControlWeather(Unit caster, BookOfWar.Weather weather) { }
+
+	/**
+		Caster changes the terrain.
+		@param caster casting unit.
+		@param terrain new terrain.
+	*/
+	default void onMoveEarth(Unit caster, BookOfWar.Terrain terrain) { }
+
+	/**
+		Caster has thrown a death spell.
+		@param caster casting unit.
+		@param target target unit.
+	*/
+	default void onDeathSpell(Unit caster, Unit target) { }
+
+	/**
+		Caster fires a wand.
+		@param caster casting unit.
+	*/
+	default void onWandFire(Unit caster) { }
+
+	/**
+		Unit uses a breath weapon.
+		@param attacker breathing unit.
+		@param breath breath weapon ability.
+	*/
+	default void onBreath(Unit attacker, SpecialAbility breath) { }
+
+	/**
+		Unit saves against an energy attack.
+		@param unit saving unit.
+		@param energy energy type.
+	*/
+	default void onEnergySave(Unit unit, BookOfWar.EnergyType energy) { }
+
+	/**
+		Unit takes energy damage.
+		@param unit damaged unit.
+		@param figsLost number of figures lost.
+		@param energy energy type.
+	*/
+	default void onEnergyDamage(Unit unit, int figsLost,
+		BookOfWar.EnergyType energy) { }
+
+	/**
+		Whirlwind passes through a unit.
+		@param attacker whirlwind unit.
+		@param figsKilled number of figures swept away.
+	*/
+	default void onWhirlwind(Unit attacker, int figsKilled) { }
+
+	/**
+		Game is called a draw (no progress or too long).
+		@param unit1 first unit.
+		@param unit2 second unit.
+	*/
+	default void onStalemate(Unit unit1, Unit unit2) { }
+
+	/**
+		Game has a winner.
+		@param winner winning unit.
+	*/
+	default void onWinner(Unit winner) { }
+}
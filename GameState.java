@@ -0,0 +1,48 @@
+import java.util.Random;
+
+/**
+	In-game variables for one game in progress.
+
+	Each worker thread owns one of these and resets it between games,
+	while the run configuration stays shared in the simulator.
+
+	@author agent
+	@since 2026-10-18
+*/
+
+class GameState {
+
+	/** Random number generator (owned by this thread). */
+	final Random random = new Random();
+
+	/** Distance between opposing units. */
+	int distance;
+
+	/** Weather category for battle. */
+	BookOfWar.Weather weather;
+
+	/** Uniform terrain for battle. */
+	BookOfWar.Terrain terrain;
+
+	/** Are the units already in contact? */
+	boolean priorContact;
+
+	/** Are pikes making an interrupting defense now? */
+	boolean pikesInterrupt;
+
+	/**
+		Reset for a new game.
+		@param newTerrain terrain for the battle.
+		@param newWeather weather for the battle.
+		@param newDistance starting distance between units.
+	*/
+	void reset(BookOfWar.Terrain newTerrain,
+		BookOfWar.Weather newWeather, int newDistance)
+	{
+		terrain = newTerrain;
+		weather = newWeather;
+		distance = newDistance;
+		priorContact = false;
+		pikesInterrupt = false;
+	}
+}
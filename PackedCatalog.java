@@ -0,0 +1,335 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+	Packed catalog of unit types.
+
+	Each type is a fixed-width record of shorts in one primitive array:
+	stats, alignment & solo flag, special bit mask, the parameters of
+	the specials present (in ordinal order), and a name index. Names
+	are interned once in a separate table, so variants of one base
+	type share their name. A record takes RECORD_SHORTS * 2 bytes,
+	so millions of candidate types fit in a modest heap, and a sweep
+	can read them in order with no per-type objects until a type is
+	actually played (see newUnit).
+
+	@author agent
+	@since 2026-10-18
+*/
+
+public class PackedCatalog {
+
+	//----------------------------------------------------------------------
+	//  Constants
+	//----------------------------------------------------------------------
+
+	/** Most specials allowed in one packed type. */
+	public static final int MAX_SPECIALS = 8;
+
+	/** Record offsets for fixed statistics. */
+	private static final int COST = 0, MOVE = 1, ARMOR = 2, HEALTH = 3,
+		ATTACKS = 4, DAMAGE = 5, RATE = 6, RANGE = 7, WIDTH = 8, FLAGS = 9;
+
+	/** Record offset for special mask (four shorts, low first). */
+	private static final int MASK = 10;
+
+	/** Record offset for name index (two shorts, low first). */
+	private static final int NAME = 14;
+
+	/** Record offset for special parameters. */
+	private static final int PARAMS = 16;
+
+	/** Shorts per record. */
+	public static final int RECORD_SHORTS = PARAMS + MAX_SPECIALS;
+
+	/** Flag bit for solo types (above alignment ordinal). */
+	private static final int SOLO_FLAG = 0x100;
+
+	/** Initial record capacity. */
+	private static final int INITIAL_CAPACITY = 64;
+
+	//----------------------------------------------------------------------
+	//  Fields
+	//----------------------------------------------------------------------
+
+	/** Packed records. */
+	private short[] records = new short[INITIAL_CAPACITY * RECORD_SHORTS];
+
+	/** Number of records. */
+	private int size;
+
+	/** Interned names. */
+	private List<String> names = new ArrayList<String>();
+
+	/** Index of each interned name. */
+	private Map<String, Integer> nameIndex = new HashMap<String, Integer>();
+
+	//----------------------------------------------------------------------
+	//  Methods
+	//----------------------------------------------------------------------
+
+	/**
+		Read a CSV file of unit types into this catalog.
+		@param filename file to read (first line is header).
+		@param isSolo true if file lists solo types.
+		@return number of types read.
+		@throws IOException if an I/O error occurs, or a row cannot
+			be parsed or packed (naming the row).
+	*/
+	public int readFile(String filename, boolean isSolo) throws IOException {
+		String[][] table = CSVReader.readFile(filename);
+		for (int i = 1; i < table.length; i++) {
+			try {
+				add(new UnitType(table[i], isSolo));
+			}
+			catch (RuntimeException e) {
+				throw new IOException(filename + " row " + i + ": " 
+					+ e.getMessage(), e);
+			}
+		}
+		return table.length - 1;
+	}
+
+	/**
+		Add a unit type to the catalog.
+		@param type unit type to pack.
+		@return index of new record.
+		@throws IllegalArgumentException if a value does not fit a short,
+			or the type has more than MAX_SPECIALS specials.
+	*/
+	public int add(UnitType type) {
+		if (type.getNumSpecials() > MAX_SPECIALS) {
+			throw new IllegalArgumentException(
+				"Too many specials to pack: " + type.getName());
+		}
+		if ((size + 1) * RECORD_SHORTS > records.length) {
+			records = Arrays.copyOf(records, records.length * 2);
+		}
+		int base = size * RECORD_SHORTS;
+		records[base + COST] = toShort(type.getCost());
+		records[base + MOVE] = toShort(type.getMove());
+		records[base + ARMOR] = toShort(type.getArmor());
+		records[base + HEALTH] = toShort(type.getHealth());
+		records[base + ATTACKS] = toShort(type.getAttacks());
+		records[base + DAMAGE] = toShort(type.getDamage());
+		records[base + RATE] = toShort(type.getRate());
+		records[base + RANGE] = toShort(type.getRange());
+		records[base + WIDTH] = toShort(type.getWidth());
+		records[base + FLAGS] = (short) (type.getAlignment().ordinal()
+			| (type.isSolo() ? SOLO_FLAG : 0));
+		putLong(base + MASK, type.getSpecialMask(), 4);
+		putLong(base + NAME, internName(type.getName()), 2);
+		int p = base + PARAMS;
+		for (SpecialType special: SpecialType.values()) {
+			if (type.hasSpecial(special)) {
+				records[p++] = toShort(type.getSpecialParam(special));
+			}
+		}
+		while (p < base + RECORD_SHORTS) {
+			records[p++] = 0;
+		}
+		return size++;
+	}
+
+	/**
+		Convert an int to a short, checking range.
+	*/
+	private static short toShort(int value) {
+		if (value != (short) value) {
+			throw new IllegalArgumentException(
+				"Value too large to pack: " + value);
+		}
+		return (short) value;
+	}
+
+	/**
+		Store a long in consecutive shorts (low first).
+	*/
+	private void putLong(int offset, long value, int numShorts) {
+		for (int i = 0; i < numShorts; i++) {
+			records[offset + i] = (short) (value >>> (16 * i));
+		}
+	}
+
+	/**
+		Read a long from consecutive shorts (low first).
+	*/
+	private long getLong(int offset, int numShorts) {
+		long value = 0;
+		for (int i = 0; i < numShorts; i++) {
+			value |= (records[offset + i] & 0xFFFFL) << (16 * i);
+		}
+		return value;
+	}
+
+	/**
+		Get index for a name, adding it if new.
+	*/
+	private int internName(String name) {
+		Integer index = nameIndex.get(name);
+		if (index == null) {
+			index = names.size();
+			names.add(name);
+			nameIndex.put(name, index);
+		}
+		return index;
+	}
+
+	/**
+		Get the number of types in the catalog.
+		@return number of records.
+	*/
+	public int size() {
+		return size;
+	}
+
+	/**
+		Get the number of distinct names.
+		@return number of interned names.
+	*/
+	public int getNumNames() {
+		return names.size();
+	}
+
+	/**
+		Get the name of a type.
+		@param i record index.
+		@return name of unit type.
+	*/
+	public String getName(int i) {
+		return names.get((int) getLong(i * RECORD_SHORTS + NAME, 2));
+	}
+
+	/**
+		Get the cost of a type.
+		@param i record index.
+		@return cost per figure.
+	*/
+	public int getCost(int i) {
+		return records[i * RECORD_SHORTS + COST];
+	}
+
+	/**
+		Is a type a solo figure type?
+		@param i record index.
+		@return true if solo type.
+	*/
+	public boolean isSolo(int i) {
+		return (records[i * RECORD_SHORTS + FLAGS] & SOLO_FLAG) != 0;
+	}
+
+	/**
+		Get the special bit mask of a type.
+		@param i record index.
+		@return bit mask of special types (by ordinal).
+	*/
+	public long getSpecialMask(int i) {
+		return getLong(i * RECORD_SHORTS + MASK, 4);
+	}
+
+	/**
+		Find if a type has a special of a given type.
+		@param i record index.
+		@param type special ability type.
+		@return true if type has that ability.
+	*/
+	public boolean hasSpecial(int i, SpecialType type) {
+		return (getSpecialMask(i) & (1L << type.ordinal())) != 0;
+	}
+
+	/**
+		Get the parameter for a special of a type.
+		Parameters are stored in ordinal order of present specials,
+		so the slot is the count of mask bits below this one.
+		@param i record index.
+		@param type special ability type.
+		@return parameter value (0 if absent).
+	*/
+	public int getSpecialParam(int i, SpecialType type) {
+		long mask = getSpecialMask(i);
+		long bit = 1L << type.ordinal();
+		if ((mask & bit) == 0) {
+			return 0;
+		}
+		int slot = Long.bitCount(mask & (bit - 1));
+		return records[i * RECORD_SHORTS + PARAMS + slot];
+	}
+
+	/**
+		Unpack a unit type.
+		@param i record index.
+		@return new unit type object.
+	*/
+	public UnitType getType(int i) {
+		assert 0 <= i && i < size;
+		int base = i * RECORD_SHORTS;
+		long mask = getSpecialMask(i);
+		int[] params = new int[SpecialType.values().length];
+		int p = base + PARAMS;
+		for (SpecialType special: SpecialType.values()) {
+			if ((mask & (1L << special.ordinal())) != 0) {
+				params[special.ordinal()] = records[p++];
+			}
+		}
+		return new UnitType(getName(i), records[base + COST],
+			records[base + MOVE], records[base + ARMOR],
+			records[base + HEALTH], records[base + ATTACKS],
+			records[base + DAMAGE], records[base + RATE],
+			records[base + RANGE], records[base + WIDTH],
+			Unit.Alignment.values()[records[base + FLAGS] & 0xFF],
+			mask, params, isSolo(i));
+	}
+
+	/**
+		Make a new in-game unit for a catalog type.
+		@param i record index.
+		@return new unit (a Solo for solo types).
+	*/
+	public Unit newUnit(int i) {
+		UnitType type = getType(i);
+		return type.isSolo() ? new Solo(type) : new Unit(type);
+	}
+
+	/**
+		Get the heap bytes used by the packed records.
+		@return bytes in record array (excluding names).
+	*/
+	public long getRecordBytes() {
+		return (long) size * RECORD_SHORTS * 2;
+	}
+
+	/**
+		Main test method.
+		Packs the basic & solo lists, checks each type unpacks to the
+		same statistics, then packs a cost sweep of one million variants.
+		@param args command-line arguments.
+		@throws IOException if a unit file cannot be read.
+	*/
+	public static void main(String[] args) throws IOException {
+		PackedCatalog catalog = new PackedCatalog();
+		int numBasic = catalog.readFile("UnitTypes.csv", false);
+		int numSolo = catalog.readFile("SoloTypes.csv", true);
+		System.out.println("Packed " + numBasic + " basic & "
+			+ numSolo + " solo types");
+		for (int i = 0; i < catalog.size(); i++) {
+			UnitType type = catalog.getType(i);
+			for (SpecialType special: SpecialType.values()) {
+				assert type.getSpecialParam(special)
+					== catalog.getSpecialParam(i, special);
+			}
+			assert type.getName().equals(catalog.getName(i));
+		}
+		int numBase = catalog.size();
+		for (int k = 0; catalog.size() < 1000000; k++) {
+			UnitType type = catalog.getType(k % numBase);
+			catalog.add(type.withCost(1 + k % 999));
+		}
+		System.out.println("Catalog of " + catalog.size() + " types: "
+			+ catalog.getRecordBytes() / 1000000 + " MB in records, "
+			+ catalog.getNumNames() + " names");
+	}
+}
@@ -23,7 +23,7 @@ public class PreferredValues {
 		@param idx index in the values sequence.
 		@return value of the entry.
 	*/
-	private static int get(int idx) {
+	public static int get(int idx) {
 		assert idx >= 0;
 		int maxArrayIdx = PREFER_VALS.length - 1;
 		if (idx <= maxArrayIdx) {
@@ -40,7 +40,7 @@ public class PreferredValues {
 		@param num number to find nearby index.
 		@return first index with value at least num.
 	*/
-	private static int getIdxAtLeast(int num) {
+	public static int getIdxAtLeast(int num) {
 		int idx = 0;
 		while (get(idx) < num) {
 			idx++;
@@ -53,7 +53,7 @@ public class PreferredValues {
 		@param num number to find nearby index.
 		@return index with value closest to num.
 	*/
-	private static int getClosestIdx(int num) {
+	public static int getClosestIdx(int num) {
 
 		// Get upper-bound index & value
 		int highIdx = getIdxAtLeast(num);
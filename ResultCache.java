@@ -0,0 +1,388 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+	Persistent cache of matchup series results.
+
+	Each entry is the full series record for one ordered pair of
+	units at one budget range, keyed by a fingerprint of both units'
+	content (stats, specials, cost, any leader) and the budgets. The
+	file header holds a fingerprint of the rules constants & engine
+	version; a file made under other rules is refused (rather than
+	used or overwritten), so a rules change never mixes in stale 
+	results nor discards the results held for the old rules.
+
+	A run reuses any entry with enough trials, and tops up entries
+	with fewer, so editing one unit type re-plays only the matchups
+	in which that type takes part.
+
+	Each entry keeps its games as segments by series seed (one per
+	series played into it). Games are fixed by their seed, so caches
+	from several runs or machines merge by taking the union of their
+	segments: games held by both (say, from a common earlier file)
+	count once, and precision grows without repeating any games.
+
+	A cache made with a capacity (as for the daemon) is bounded by
+	its count of segments: it drops least recently used matchups when
+	over capacity, and drops half its segments when the heap runs
+	short (at most once per garbage collection, since space freed
+	shows only after one).
+
+	@author agent
+	@since 2026-10-18
+*/
+
+public class ResultCache {
+
+	//----------------------------------------------------------------------
+	//  Constants
+	//----------------------------------------------------------------------
+
+	/** File identifier ("BOWCACHE"). */
+	private static final long MAGIC = 0x424F574341434845L;
+
+	/** File format version. */
+	private static final int VERSION = 4;
+
+	/** Share of maximum heap in use past which a bounded cache evicts. */
+	private static final double MEMORY_LIMIT = 0.90;
+
+	//----------------------------------------------------------------------
+	//  Fields
+	//----------------------------------------------------------------------
+
+	/** Fingerprint of rules in effect for these results. */
+	private final long rulesKey;
+
+	/** Series segments by seed, by matchup key (least recent first). */
+	private final Map<Long, Map<Long, SeriesResult>> entries
+		= new LinkedHashMap<Long, Map<Long, SeriesResult>>(16, 0.75f, true);
+
+	/** Most segments to keep (or 0 for no limit). */
+	private final int capacity;
+
+	/** Segments held over all matchups. */
+	private int segmentCount;
+
+	/** Garbage collections seen at last trim for memory (or -1). */
+	private long trimGcCount = -1;
+
+	/** Matchups found with enough trials this run. */
+	private int hits;
+
+	/** Matchups played (in whole or part) this run. */
+	private int misses;
+
+	//----------------------------------------------------------------------
+	//  Constructor
+	//----------------------------------------------------------------------
+
+	/**
+		Constructor (empty cache).
+		@param pRulesKey fingerprint of rules in effect.
+	*/
+	public ResultCache(long pRulesKey) {
+		this(pRulesKey, 0);
+	}
+
+	/**
+		Constructor (empty cache, bounded).
+		@param pRulesKey fingerprint of rules in effect.
+		@param pCapacity most segments to keep (or 0 for no limit).
+	*/
+	public ResultCache(long pRulesKey, int pCapacity) {
+		rulesKey = pRulesKey;
+		capacity = pCapacity;
+	}
+
+	//----------------------------------------------------------------------
+	//  Methods
+	//----------------------------------------------------------------------
+
+	/**
+		Check if heap in use (including garbage not yet collected)
+		is past the memory limit.
+	*/
+	private static boolean isMemoryLow() {
+		Runtime runtime = Runtime.getRuntime();
+		long used = runtime.totalMemory() - runtime.freeMemory();
+		return used > runtime.maxMemory() * MEMORY_LIMIT;
+	}
+
+	/**
+		Get the number of garbage collections run so far.
+	*/
+	private static long getGcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean gc: 
+			ManagementFactory.getGarbageCollectorMXBeans())
+		{
+			count += Math.max(0, gc.getCollectionCount());
+		}
+		return count;
+	}
+
+	/**
+		Drop least recently used matchups while a bounded cache is 
+		over capacity, or down to half its segments if the heap runs
+		short (once per garbage collection).
+	*/
+	private void trim() {
+		if (capacity == 0) {
+			return;
+		}
+		int target = capacity;
+		if (isMemoryLow()) {
+			long gcCount = getGcCount();
+			if (gcCount != trimGcCount) {
+				trimGcCount = gcCount;
+				target = Math.min(target, segmentCount / 2);
+			}
+		}
+		Iterator<Map<Long, SeriesResult>> it = entries.values().iterator();
+		while (segmentCount > target && it.hasNext()) {
+			segmentCount -= it.next().size();
+			it.remove();
+		}
+	}
+
+	/**
+		Make the key for one matchup.
+		@param unit1 first unit (results are from its viewpoint).
+		@param unit2 second unit.
+		@param budgetMin minimum budget.
+		@param budgetMax maximum budget.
+		@return 64-bit matchup key.
+	*/
+	public static long makeKey(Unit unit1, Unit unit2,
+		int budgetMin, int budgetMax)
+	{
+		long h = Fingerprint.add(Fingerprint.START, unit1.getFingerprint());
+		h = Fingerprint.add(h, unit2.getFingerprint());
+		h = Fingerprint.add(h, budgetMin);
+		return Fingerprint.add(h, budgetMax);
+	}
+
+	/**
+		Get the cached result for a matchup.
+		@param key matchup key.
+		@return total of cached segments (empty if none).
+	*/
+	public synchronized SeriesResult get(long key) {
+		SeriesResult total = new SeriesResult();
+		Map<Long, SeriesResult> segments = entries.get(key);
+		if (segments != null) {
+			for (SeriesResult segment: segments.values()) {
+				total.merge(segment);
+			}
+		}
+		return total;
+	}
+
+	/**
+		Add a segment of new games for a matchup.
+		@param key matchup key.
+		@param seed seed of the series that played the games.
+		@param result record of the games.
+	*/
+	public synchronized void add(long key, long seed, SeriesResult result) {
+		SeriesResult copy = new SeriesResult();
+		copy.merge(result);
+		addSegment(key, seed, copy);
+	}
+
+	/**
+		Add a segment, unless one from the same series is held.
+		Of two segments from one series, keeps the longer.
+		@return true if the segment added any games.
+	*/
+	private boolean addSegment(long key, long seed, SeriesResult segment) {
+		Map<Long, SeriesResult> segments = entries.get(key);
+		if (segments == null) {
+			segments = new LinkedHashMap<Long, SeriesResult>();
+			entries.put(key, segments);
+		}
+		SeriesResult held = segments.get(seed);
+		if (held != null && held.getTrials() >= segment.getTrials()) {
+			return false;
+		}
+		if (held == null) {
+			segmentCount++;
+		}
+		segments.put(seed, segment);
+		trim();
+		return true;
+	}
+
+	/**
+		Merge another cache's segments into this one.
+		Segments from a series already held are not counted twice.
+		@param other cache of results under the same rules.
+		@return number of segments that added games.
+	*/
+	public synchronized int merge(ResultCache other) {
+		assert other.rulesKey == rulesKey;
+		int added = 0;
+		for (Map.Entry<Long, Map<Long, SeriesResult>> entry: 
+			other.entries.entrySet())
+		{
+			for (Map.Entry<Long, SeriesResult> segment: 
+				entry.getValue().entrySet())
+			{
+				SeriesResult copy = new SeriesResult();
+				copy.merge(segment.getValue());
+				if (addSegment(entry.getKey(), segment.getKey(), copy)) {
+					added++;
+				}
+			}
+		}
+		return added;
+	}
+
+	/**
+		Count a matchup lookup for the run summary.
+		@param hit true if the cached entry had enough trials.
+	*/
+	public synchronized void countLookup(boolean hit) {
+		if (hit) {
+			hits++;
+		}
+		else {
+			misses++;
+		}
+	}
+
+	/**
+		Get the fingerprint of rules for these results.
+		@return rules fingerprint.
+	*/
+	public long getRulesKey() {
+		return rulesKey;
+	}
+
+	/**
+		Clear the lookup counts (for a new pass over the same cache).
+	*/
+	public synchronized void resetCounts() {
+		hits = 0;
+		misses = 0;
+	}
+
+	/**
+		Get the number of matchups reused this run.
+		@return matchups served from cache.
+	*/
+	public synchronized int getHits() {
+		return hits;
+	}
+
+	/**
+		Get the number of matchups played this run.
+		@return matchups not fully served from cache.
+	*/
+	public synchronized int getMisses() {
+		return misses;
+	}
+
+	/**
+		Get the number of cached matchups.
+		@return entries in cache.
+	*/
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+		Get the number of series segments over all matchups.
+		@return segments in cache.
+	*/
+	public synchronized int countSegments() {
+		return segmentCount;
+	}
+
+	/**
+		Load a cache file.
+		A missing file gives an empty cache.
+		@param filename file to read.
+		@param rulesKey fingerprint of rules in effect.
+		@return cache of results.
+		@throws IOException if the file cannot be read, or was made 
+			under other rules (or an older format).
+	*/
+	public static ResultCache load(String filename, long rulesKey)
+		throws IOException
+	{
+		ResultCache cache = new ResultCache(rulesKey);
+		File file = new File(filename);
+		if (!file.exists()) {
+			return cache;
+		}
+		try (DataInputStream in = new DataInputStream(
+			new BufferedInputStream(new FileInputStream(file))))
+		{
+			if (in.readLong() != MAGIC) {
+				throw new IOException("Not a result cache file: " + filename);
+			}
+			if (in.readInt() != VERSION || in.readLong() != rulesKey) {
+				throw new IOException("Result cache " + filename
+					+ " was made under other rules or an older version.");
+			}
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				long key = in.readLong();
+				int numSegments = in.readInt();
+				for (int j = 0; j < numSegments; j++) {
+					long seed = in.readLong();
+					cache.addSegment(key, seed, SeriesResult.read(in));
+				}
+			}
+		}
+		return cache;
+	}
+
+	/**
+		Save this cache to a file.
+		Writes a temporary file first, then replaces the old one.
+		@param filename file to write.
+		@throws IOException if the file cannot be written.
+	*/
+	public synchronized void save(String filename) throws IOException {
+		File file = new File(filename);
+		File temp = new File(filename + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(
+			new BufferedOutputStream(new FileOutputStream(temp))))
+		{
+			out.writeLong(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(rulesKey);
+			out.writeInt(entries.size());
+			for (Map.Entry<Long, Map<Long, SeriesResult>> entry: 
+				entries.entrySet())
+			{
+				out.writeLong(entry.getKey());
+				out.writeInt(entry.getValue().size());
+				for (Map.Entry<Long, SeriesResult> segment: 
+					entry.getValue().entrySet())
+				{
+					out.writeLong(segment.getKey());
+					segment.getValue().write(out);
+				}
+			}
+		}
+		Files.move(temp.toPath(), file.toPath(),
+			StandardCopyOption.REPLACE_EXISTING);
+	}
+}
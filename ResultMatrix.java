@@ -0,0 +1,236 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+	Matrix of matchup results kept in a memory-mapped file.
+
+	Each cell holds the win score (in half-wins, so draws count half),
+	the number of trials, and the seed of the first series played for
+	that cell. Cells live off the heap in the mapped file, so a matrix
+	too large for the heap can be filled, and its totals keep across
+	runs: reopening a file made for the same table adds to what is
+	there. The header holds a fingerprint of the table's content
+	(units, budgets & rules), so a file made for any other table is
+	refused, not added to.
+
+	Different cells may be updated by different threads at once;
+	one cell must have only one writer at a time.
+
+	@author agent
+	@since 2026-10-18
+*/
+
+public class ResultMatrix {
+
+	//----------------------------------------------------------------------
+	//  Constants
+	//----------------------------------------------------------------------
+
+	/** File identifier ("BOWMATRX"). */
+	private static final long MAGIC = 0x424F574D41545258L;
+
+	/** File format version. */
+	private static final int VERSION = 2;
+
+	/** Bytes in file header (magic, version, rows, cols, content key). */
+	private static final int HEADER_BYTES = 32;
+
+	/** Bytes per cell (win halves, trials, seed). */
+	private static final int CELL_BYTES = 24;
+
+	/** Cells per mapped segment (each segment under 1 GiB). */
+	private static final int CELLS_PER_SEGMENT = (1 << 30) / CELL_BYTES;
+
+	//----------------------------------------------------------------------
+	//  Fields
+	//----------------------------------------------------------------------
+
+	/** Number of rows. */
+	private final int rows;
+
+	/** Number of columns. */
+	private final int cols;
+
+	/** Backing file. */
+	private final RandomAccessFile file;
+
+	/** Mapped segments of cells. */
+	private final MappedByteBuffer[] segments;
+
+	//----------------------------------------------------------------------
+	//  Constructor
+	//----------------------------------------------------------------------
+
+	/**
+		Open or create a result matrix file.
+		@param filename name of backing file.
+		@param pRows number of rows.
+		@param pCols number of columns.
+		@param contentKey fingerprint of the table's units, budgets
+			& rules.
+		@throws IOException if file cannot be mapped, or already
+			holds a matrix of a different size or content.
+	*/
+	public ResultMatrix(String filename, int pRows, int pCols,
+		long contentKey) throws IOException
+	{
+		rows = pRows;
+		cols = pCols;
+		file = new RandomAccessFile(filename, "rw");
+		FileChannel channel = file.getChannel();
+		long numCells = (long) rows * cols;
+		long fileSize = HEADER_BYTES + numCells * CELL_BYTES;
+
+		// Check or write header
+		boolean isNew = file.length() == 0;
+		MappedByteBuffer header = channel.map(
+			FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+		if (isNew) {
+			header.putLong(0, MAGIC);
+			header.putInt(8, VERSION);
+			header.putInt(12, rows);
+			header.putInt(16, cols);
+			header.putLong(24, contentKey);
+			header.force();
+		}
+		else if (header.getLong(0) != MAGIC
+			|| header.getInt(8) != VERSION
+			|| header.getInt(12) != rows
+			|| header.getInt(16) != cols)
+		{
+			file.close();
+			throw new IOException("Result matrix file " + filename
+				+ " does not match a " + rows + " x " + cols + " table.");
+		}
+		else if (header.getLong(24) != contentKey) {
+			file.close();
+			throw new IOException("Result matrix file " + filename
+				+ " was made for other units, budgets, or rules.");
+		}
+
+		// Map cells in segments
+		int numSegments = (int) ((numCells + CELLS_PER_SEGMENT - 1)
+			/ CELLS_PER_SEGMENT);
+		segments = new MappedByteBuffer[numSegments];
+		for (int i = 0; i < numSegments; i++) {
+			long start = HEADER_BYTES + (long) i * CELLS_PER_SEGMENT * CELL_BYTES;
+			long size = Math.min((long) CELLS_PER_SEGMENT * CELL_BYTES,
+				fileSize - start);
+			segments[i] = channel.map(
+				FileChannel.MapMode.READ_WRITE, start, size);
+		}
+	}
+
+	//----------------------------------------------------------------------
+	//  Methods
+	//----------------------------------------------------------------------
+
+	/**
+		Get the number of rows.
+		@return rows in matrix.
+	*/
+	public int getRows() {
+		return rows;
+	}
+
+	/**
+		Get the number of columns.
+		@return columns in matrix.
+	*/
+	public int getCols() {
+		return cols;
+	}
+
+	/**
+		Get the segment holding a cell.
+	*/
+	private ByteBuffer getSegment(int row, int col) {
+		long cell = (long) row * cols + col;
+		return segments[(int) (cell / CELLS_PER_SEGMENT)];
+	}
+
+	/**
+		Get the byte offset of a cell in its segment.
+	*/
+	private int getOffset(int row, int col) {
+		assert 0 <= row && row < rows && 0 <= col && col < cols;
+		long cell = (long) row * cols + col;
+		return (int) (cell % CELLS_PER_SEGMENT) * CELL_BYTES;
+	}
+
+	/**
+		Add a series result to a cell.
+		Keeps the cell's seed if it already has trials.
+		@param row row index.
+		@param col column index.
+		@param result series result for the row unit.
+		@param seed seed of the series played.
+	*/
+	public void addResult(int row, int col, SeriesResult result, long seed) {
+		ByteBuffer buf = getSegment(row, col);
+		int offset = getOffset(row, col);
+		long trials = buf.getLong(offset + 8);
+		buf.putLong(offset, buf.getLong(offset)
+			+ 2L * result.getWins() + result.getDraws());
+		buf.putLong(offset + 8, trials + result.getTrials());
+		if (trials == 0) {
+			buf.putLong(offset + 16, seed);
+		}
+	}
+
+	/**
+		Get the win score of a cell.
+		@param row row index.
+		@param col column index.
+		@return wins for the row unit, in half-wins (draws count one).
+	*/
+	public long getWinHalves(int row, int col) {
+		return getSegment(row, col).getLong(getOffset(row, col));
+	}
+
+	/**
+		Get the trials played for a cell.
+		@param row row index.
+		@param col column index.
+		@return total trials recorded.
+	*/
+	public long getTrials(int row, int col) {
+		return getSegment(row, col).getLong(getOffset(row, col) + 8);
+	}
+
+	/**
+		Get the seed of the first series played for a cell.
+		@param row row index.
+		@param col column index.
+		@return seed of first series.
+	*/
+	public long getSeed(int row, int col) {
+		return getSegment(row, col).getLong(getOffset(row, col) + 16);
+	}
+
+	/**
+		Get the win ratio for a cell (draws count half).
+		@param row row index.
+		@param col column index.
+		@return win ratio for the row unit (0.5 if no trials).
+	*/
+	public double getWinRatio(int row, int col) {
+		long trials = getTrials(row, col);
+		return trials == 0 ? 0.5
+			: getWinHalves(row, col) / (2.0 * trials);
+	}
+
+	/**
+		Flush changes to disk & close the file.
+		@throws IOException if the file cannot be closed.
+	*/
+	public void close() throws IOException {
+		for (MappedByteBuffer segment: segments) {
+			segment.force();
+		}
+		file.close();
+	}
+}
@@ -0,0 +1,417 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+	Result record for a series of games between two units.
+	Counts are from the viewpoint of the first unit.
+
+	All fields are primitive counters, so recording a game allocates
+	nothing. Records for separate chunks of trials are combined with
+	merge(); standard errors come from the running sums of squares.
+
+	Games are also counted by budget step (nominal budget less the
+	minimum budget), so one series over a wide budget range gives
+	win ratios for any band of budgets within it.
+
+	@author agent
+	@since 2026-10-18
+*/
+
+public class SeriesResult {
+
+	//----------------------------------------------------------------------
+	//  Fields
+	//----------------------------------------------------------------------
+
+	/** Games won by the first unit. */
+	private int wins;
+
+	/** Games lost by the first unit. */
+	private int losses;
+
+	/** Games drawn by stalemate or turn limit. */
+	private int draws;
+
+	/** Sum of game lengths in rounds. */
+	private long sumRounds;
+
+	/** Sum of squared game lengths in rounds. */
+	private long sumSqRounds;
+
+	/** Sum of figures left at game end (first unit). */
+	private long survivors1;
+
+	/** Sum of figures left at game end (second unit). */
+	private long survivors2;
+
+	/** Decided games where the loser routed. */
+	private int routs;
+
+	/** Decided games where the loser was wiped out. */
+	private int wipeouts;
+
+	/** Games played by starting terrain. */
+	private int[] terrainGames = new int[BookOfWar.Terrain.values().length];
+
+	/** Games won by the first unit by starting terrain. */
+	private int[] terrainWins = new int[BookOfWar.Terrain.values().length];
+
+	/** Games lost by the first unit by starting terrain. */
+	private int[] terrainLosses = new int[BookOfWar.Terrain.values().length];
+
+	/** Games played by budget step (grown as needed). */
+	private int[] budgetGames = new int[0];
+
+	/** Games won by the first unit by budget step. */
+	private int[] budgetWins = new int[0];
+
+	/** Games lost by the first unit by budget step. */
+	private int[] budgetLosses = new int[0];
+
+	//----------------------------------------------------------------------
+	//  Methods
+	//----------------------------------------------------------------------
+
+	/**
+		Record one game.
+		@param result result for the first unit.
+		@param rounds length of game in rounds.
+		@param figs1 figures left in first unit.
+		@param figs2 figures left in second unit.
+		@param rout true if the loser routed (not wiped out).
+		@param terrain terrain at start of game.
+		@param budgetStep nominal budget less minimum (or -1 if none).
+	*/
+	public void addGame(BookOfWar.GameResult result, int rounds,
+		int figs1, int figs2, boolean rout, BookOfWar.Terrain terrain,
+		int budgetStep)
+	{
+		switch (result) {
+			case Win: wins++; break;
+			case Loss: losses++; break;
+			default: draws++; break;
+		}
+		if (result != BookOfWar.GameResult.Draw) {
+			if (rout) {
+				routs++;
+			}
+			else {
+				wipeouts++;
+			}
+		}
+		if (result == BookOfWar.GameResult.Win) {
+			terrainWins[terrain.ordinal()]++;
+		}
+		else if (result == BookOfWar.GameResult.Loss) {
+			terrainLosses[terrain.ordinal()]++;
+		}
+		terrainGames[terrain.ordinal()]++;
+		if (budgetStep >= 0) {
+			growBudgetSteps(budgetStep + 1);
+			budgetGames[budgetStep]++;
+			if (result == BookOfWar.GameResult.Win) {
+				budgetWins[budgetStep]++;
+			}
+			else if (result == BookOfWar.GameResult.Loss) {
+				budgetLosses[budgetStep]++;
+			}
+		}
+		sumRounds += rounds;
+		sumSqRounds += (long) rounds * rounds;
+		survivors1 += figs1;
+		survivors2 += figs2;
+	}
+
+	/**
+		Merge another record into this one.
+		@param other record of more games for the same matchup.
+	*/
+	public void merge(SeriesResult other) {
+		wins += other.wins;
+		losses += other.losses;
+		draws += other.draws;
+		sumRounds += other.sumRounds;
+		sumSqRounds += other.sumSqRounds;
+		survivors1 += other.survivors1;
+		survivors2 += other.survivors2;
+		routs += other.routs;
+		wipeouts += other.wipeouts;
+		for (int i = 0; i < terrainGames.length; i++) {
+			terrainGames[i] += other.terrainGames[i];
+			terrainWins[i] += other.terrainWins[i];
+			terrainLosses[i] += other.terrainLosses[i];
+		}
+		growBudgetSteps(other.budgetGames.length);
+		for (int i = 0; i < other.budgetGames.length; i++) {
+			budgetGames[i] += other.budgetGames[i];
+			budgetWins[i] += other.budgetWins[i];
+			budgetLosses[i] += other.budgetLosses[i];
+		}
+	}
+
+	/**
+		Make room for at least some number of budget steps.
+	*/
+	private void growBudgetSteps(int steps) {
+		if (steps > budgetGames.length) {
+			budgetGames = Arrays.copyOf(budgetGames, steps);
+			budgetWins = Arrays.copyOf(budgetWins, steps);
+			budgetLosses = Arrays.copyOf(budgetLosses, steps);
+		}
+	}
+
+	/**
+		Get this record from the second unit's viewpoint.
+		@return new record with wins & losses (and survivors) swapped.
+	*/
+	public SeriesResult getMirror() {
+		SeriesResult mirror = new SeriesResult();
+		mirror.wins = losses;
+		mirror.losses = wins;
+		mirror.draws = draws;
+		mirror.sumRounds = sumRounds;
+		mirror.sumSqRounds = sumSqRounds;
+		mirror.survivors1 = survivors2;
+		mirror.survivors2 = survivors1;
+		mirror.routs = routs;
+		mirror.wipeouts = wipeouts;
+		for (int i = 0; i < terrainGames.length; i++) {
+			mirror.terrainGames[i] = terrainGames[i];
+			mirror.terrainWins[i] = terrainLosses[i];
+			mirror.terrainLosses[i] = terrainWins[i];
+		}
+		mirror.budgetGames = budgetGames.clone();
+		mirror.budgetWins = budgetLosses.clone();
+		mirror.budgetLosses = budgetWins.clone();
+		return mirror;
+	}
+
+	/**
+		Write this record to a data stream.
+		@param out stream to write.
+		@throws IOException if an I/O error occurs.
+	*/
+	public void write(DataOutput out) throws IOException {
+		out.writeInt(wins);
+		out.writeInt(losses);
+		out.writeInt(draws);
+		out.writeLong(sumRounds);
+		out.writeLong(sumSqRounds);
+		out.writeLong(survivors1);
+		out.writeLong(survivors2);
+		out.writeInt(routs);
+		out.writeInt(wipeouts);
+		out.writeInt(terrainGames.length);
+		for (int i = 0; i < terrainGames.length; i++) {
+			out.writeInt(terrainGames[i]);
+			out.writeInt(terrainWins[i]);
+			out.writeInt(terrainLosses[i]);
+		}
+		out.writeInt(budgetGames.length);
+		for (int i = 0; i < budgetGames.length; i++) {
+			out.writeInt(budgetGames[i]);
+			out.writeInt(budgetWins[i]);
+			out.writeInt(budgetLosses[i]);
+		}
+	}
+
+	/**
+		Read a record from a data stream (as written by write()).
+		@param in stream to read.
+		@return record read.
+		@throws IOException if an I/O error occurs, or the record
+			has a different number of terrain types.
+	*/
+	public static SeriesResult read(DataInput in) throws IOException {
+		SeriesResult result = new SeriesResult();
+		result.wins = in.readInt();
+		result.losses = in.readInt();
+		result.draws = in.readInt();
+		result.sumRounds = in.readLong();
+		result.sumSqRounds = in.readLong();
+		result.survivors1 = in.readLong();
+		result.survivors2 = in.readLong();
+		result.routs = in.readInt();
+		result.wipeouts = in.readInt();
+		if (in.readInt() != result.terrainGames.length) {
+			throw new IOException("Series record has wrong terrain count.");
+		}
+		for (int i = 0; i < result.terrainGames.length; i++) {
+			result.terrainGames[i] = in.readInt();
+			result.terrainWins[i] = in.readInt();
+			result.terrainLosses[i] = in.readInt();
+		}
+		result.growBudgetSteps(in.readInt());
+		for (int i = 0; i < result.budgetGames.length; i++) {
+			result.budgetGames[i] = in.readInt();
+			result.budgetWins[i] = in.readInt();
+			result.budgetLosses[i] = in.readInt();
+		}
+		return result;
+	}
+
+	/**
+		Get the number of games won.
+		@return games won by the first unit.
+	*/
+	public int getWins() {
+		return wins;
+	}
+
+	/**
+		Get the number of games lost.
+		@return games lost by the first unit.
+	*/
+	public int getLosses() {
+		return losses;
+	}
+
+	/**
+		Get the number of games drawn.
+		@return games ended by stalemate or turn limit.
+	*/
+	public int getDraws() {
+		return draws;
+	}
+
+	/**
+		Get the number of games played.
+		@return total games in series.
+	*/
+	public int getTrials() {
+		return wins + losses + draws;
+	}
+
+	/**
+		Get the win ratio, counting draws as half a win.
+		@return win ratio for the first unit.
+	*/
+	public double getWinRatio() {
+		int trials = getTrials();
+		return trials == 0 ? 0.5 : (wins + 0.5 * draws) / trials;
+	}
+
+	/**
+		Get the standard error of the win ratio.
+		Each game scores 1, 1/2, or 0 for the first unit.
+		@return standard error of win ratio.
+	*/
+	public double getWinRatioStdErr() {
+		int trials = getTrials();
+		if (trials < 2) {
+			return 0.0;
+		}
+		double mean = getWinRatio();
+		double meanSq = (wins + 0.25 * draws) / trials;
+		double var = (meanSq - mean * mean) * trials / (trials - 1);
+		return Math.sqrt(Math.max(0.0, var) / trials);
+	}
+
+	/**
+		Get the mean game length.
+		@return mean rounds per game.
+	*/
+	public double getMeanRounds() {
+		int trials = getTrials();
+		return trials == 0 ? 0.0 : (double) sumRounds / trials;
+	}
+
+	/**
+		Get the standard error of the mean game length.
+		@return standard error of mean rounds per game.
+	*/
+	public double getMeanRoundsStdErr() {
+		int trials = getTrials();
+		if (trials < 2) {
+			return 0.0;
+		}
+		double mean = getMeanRounds();
+		double var = ((double) sumSqRounds / trials - mean * mean)
+			* trials / (trials - 1);
+		return Math.sqrt(Math.max(0.0, var) / trials);
+	}
+
+	/**
+		Get the mean figures left at game end.
+		@param firstUnit true for first unit, false for second.
+		@return mean surviving figures.
+	*/
+	public double getMeanSurvivors(boolean firstUnit) {
+		int trials = getTrials();
+		long sum = firstUnit ? survivors1 : survivors2;
+		return trials == 0 ? 0.0 : (double) sum / trials;
+	}
+
+	/**
+		Get the share of decided games ended by a rout.
+		@return routs over all decided games.
+	*/
+	public double getRoutRatio() {
+		int decided = routs + wipeouts;
+		return decided == 0 ? 0.0 : (double) routs / decided;
+	}
+
+	/**
+		Get the number of budget steps recorded.
+		@return one more than the highest budget step played.
+	*/
+	public int getBudgetSteps() {
+		return budgetGames.length;
+	}
+
+	/**
+		Get the number of games played in a band of budget steps.
+		@param fromStep first budget step in band.
+		@param toStep budget step after band.
+		@return games played at those budget steps.
+	*/
+	public int getBudgetGames(int fromStep, int toStep) {
+		int games = 0;
+		toStep = Math.min(toStep, budgetGames.length);
+		for (int i = fromStep; i < toStep; i++) {
+			games += budgetGames[i];
+		}
+		return games;
+	}
+
+	/**
+		Get the win ratio for a band of budget steps.
+		Draws count as half a win.
+		@param fromStep first budget step in band.
+		@param toStep budget step after band.
+		@return win ratio for the first unit (0.5 if no games).
+	*/
+	public double getBudgetWinRatio(int fromStep, int toStep) {
+		int games = 0, wins = 0, losses = 0;
+		toStep = Math.min(toStep, budgetGames.length);
+		for (int i = fromStep; i < toStep; i++) {
+			games += budgetGames[i];
+			wins += budgetWins[i];
+			losses += budgetLosses[i];
+		}
+		return games == 0 ? 0.5
+			: (wins + 0.5 * (games - wins - losses)) / games;
+	}
+
+	/**
+		Get the number of games played on a starting terrain.
+		@param terrain terrain type.
+		@return games started on that terrain.
+	*/
+	public int getTerrainGames(BookOfWar.Terrain terrain) {
+		return terrainGames[terrain.ordinal()];
+	}
+
+	/**
+		Get the win ratio on a starting terrain (draws are not wins).
+		@param terrain terrain type.
+		@return win ratio for the first unit on that terrain.
+	*/
+	public double getTerrainWinRatio(BookOfWar.Terrain terrain) {
+		int games = terrainGames[terrain.ordinal()];
+		return games == 0 ? 0.5
+			: (double) terrainWins[terrain.ordinal()] / games;
+	}
+}
@@ -0,0 +1,130 @@
+/**
+	Thread-safe accumulator for one series played in chunks.
+
+	Worker threads merge whole chunk records into one of several
+	stripes picked by thread, so concurrent chunks of the same series
+	rarely contend for a lock (in the manner of LongAdder cells).
+	Stripes are summed only when the total is read.
+
+	Each series has a seed; chunk k of the series draws its games
+	from a generator seeded with a mix of (seed + k), so any series
+	can be replayed exactly from its seed and chunk count.
+
+	Trials from earlier runs (as from a result cache) are held apart
+	as a prior record: counted in the total, but not in the games
+	played this pass.
+
+	@author agent
+	@since 2026-10-18
+*/
+
+public class SeriesTally {
+
+	//----------------------------------------------------------------------
+	//  Fields
+	//----------------------------------------------------------------------
+
+	/** Partial records (length a power of two). */
+	private final SeriesResult[] stripes;
+
+	/** Seed for this series. */
+	private final long seed;
+
+	/** Record of trials from earlier runs. */
+	private volatile SeriesResult prior = new SeriesResult();
+
+	//----------------------------------------------------------------------
+	//  Constructor
+	//----------------------------------------------------------------------
+
+	/**
+		Constructor.
+		@param numThreads number of threads that may merge at once.
+		@param pSeed seed for this series.
+	*/
+	public SeriesTally(int numThreads, long pSeed) {
+		seed = pSeed;
+		int size = Integer.highestOneBit(Math.max(1, numThreads - 1)) * 2;
+		stripes = new SeriesResult[size];
+		for (int i = 0; i < size; i++) {
+			stripes[i] = new SeriesResult();
+		}
+	}
+
+	//----------------------------------------------------------------------
+	//  Methods
+	//----------------------------------------------------------------------
+
+	/**
+		Mix a 64-bit value into a well-spread seed.
+		(Finalizer step of the SplitMix64 generator.)
+		@param z value to mix.
+		@return mixed value.
+	*/
+	static long mixSeed(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+		Get the seed for this series.
+		@return series seed.
+	*/
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+		Get the seed for one chunk of this series.
+		@param chunk chunk index (0-based).
+		@return random seed for chunk.
+	*/
+	public long getChunkSeed(int chunk) {
+		return mixSeed(seed + chunk);
+	}
+
+	/**
+		Merge a chunk record into this tally.
+		@param chunk record of games played by the calling thread.
+	*/
+	public void merge(SeriesResult chunk) {
+		int index = (int) Thread.currentThread().getId() & (stripes.length - 1);
+		SeriesResult stripe = stripes[index];
+		synchronized (stripe) {
+			stripe.merge(chunk);
+		}
+	}
+
+	/**
+		Set the record of trials from earlier runs.
+		@param record trials played before this pass.
+	*/
+	public void setPrior(SeriesResult record) {
+		prior = record;
+	}
+
+	/**
+		Get the total of all chunks merged so far (with prior trials).
+		@return combined record for the series.
+	*/
+	public SeriesResult getTotal() {
+		SeriesResult total = getPlayed();
+		total.merge(prior);
+		return total;
+	}
+
+	/**
+		Get the total of chunks played this pass (without prior trials).
+		@return combined record of new games.
+	*/
+	public SeriesResult getPlayed() {
+		SeriesResult total = new SeriesResult();
+		for (SeriesResult stripe: stripes) {
+			synchronized (stripe) {
+				total.merge(stripe);
+			}
+		}
+		return total;
+	}
+}
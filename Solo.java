@@ -1,21 +1,16 @@
 /**
 	One solo figure.
 
+	Solo behavior (fearless, auto-hit, small target, saves vs. magic,
+	never swept) comes from flags on the unit type, so this class adds
+	no overrides; it marks leader & catalog entries for type checking.
+
 	@author Daniel R. Collins
 	@since 2022-12-22
 */
 
 public class Solo extends Unit {
 
-	//----------------------------------------------------------------------
-	//  Field(s)
-	//----------------------------------------------------------------------
-
-	/** 
-		The unit in which this figure is embedded (if any).
-	*/
-	private Unit host;
-
 	//----------------------------------------------------------------------
 	//  Constructor(s)
 	//----------------------------------------------------------------------
@@ -25,7 +20,16 @@ public class Solo extends Unit {
 		@param s Descriptor string array.
 	*/
 	public Solo(String[] s) {
-		super(s);
+		this(new UnitType(s, true));
+	}
+
+	/**
+		Constructor (from unit type).
+		@param type solo unit type statistics.
+	*/
+	public Solo(UnitType type) {
+		super(type);
+		assert type.isSolo();
 	}
 
 	/**
@@ -34,51 +38,5 @@ public class Solo extends Unit {
 	*/
 	public Solo(Solo src) {
 		super(src);
-		host = src.host;
-	}
-
-	//----------------------------------------------------------------------
-	//  Methods
-	//----------------------------------------------------------------------
-
-// 	/** Solos don't have embedded leaders. */
-// 	@Override public Solo getLeader() { return null; }
-// 	@Override public boolean hasLeader() { return false; };
-
-	/** Solos may be embedded in another unit. */
-	@Override public Unit getHost() { return host; }
-	@Override public boolean hasHost() { return host != null; }
-	
-	/** Solos never check morale. */
-	@Override public boolean isFearless() { return true; }
-
-	/** Solos always hit on attacks. */
-	@Override public boolean autoHits() { return true; }
-	
-	/** Solos present small targets against attacks. */
-	@Override public boolean isSmallTarget() { return true; }
-	
-	/** Solos are never subject to sweep attacks. */
-	@Override public boolean isSweepable() { return false; }
-
-	/** Solos get saving throws versus magic damage. */
-	@Override public boolean getsSaves() { return true; }
-
-	/** 
-		Set our host unit.
-		@param newHost the new host unit.
-	*/
-	public void setHost(Unit newHost) {
-		host = newHost;
-	}
-
-	/** 
-		Check if we have an active host unit.
-		@return true if we have an active host unit.
-	*/
-	@Override public boolean hasActiveHost() { 
-		return host != null 
-			&& !host.isRouted()
-			&& host.getFigures() > 0;
 	}
 }
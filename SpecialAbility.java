@@ -1,24 +1,46 @@
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 
 /**
 	Parameterized special ability for a unit.
 
+	Abilities are immutable flyweights: each (type, param) pair is
+	interned once in a registry and shared by every unit type that
+	has it. Get instances from valueOf() or createFromString().
+
 	@author Daniel R. Collins
 	@since 2022-12-10
 */
 
 public class SpecialAbility {
 
+	//----------------------------------------------------------------------
+	//  Constants
+	//----------------------------------------------------------------------
+
+	/** Format of a special ability descriptor, e.g. "Flight (12)". */
+	private static final Pattern FORMAT 
+		= Pattern.compile("(\\w+)( \\(([-]?\\d+))?\\)?");
+
+	/** Registry of interned abilities (by type & param key). */
+	private static final ConcurrentMap<Long, SpecialAbility> REGISTRY
+		= new ConcurrentHashMap<Long, SpecialAbility>();
+
+	/** Interned abilities by descriptor string. */
+	private static final ConcurrentMap<String, SpecialAbility> PARSED
+		= new ConcurrentHashMap<String, SpecialAbility>();
+
 	//----------------------------------------------------------------------
 	//  Fields
 	//----------------------------------------------------------------------
 
 	/** SpecialType of special ability. */
-	private SpecialType type;
+	private final SpecialType type;
 
 	/** Parameter for level of ability. */
-	private int param;
+	private final int param;
 
 	//----------------------------------------------------------------------
 	//  Constructors
@@ -29,46 +51,61 @@ public class SpecialAbility {
 		@param pType Special type value.
 		@param pParam Special parameter value.
 	*/
-	SpecialAbility(SpecialType pType, int pParam) {
+	private SpecialAbility(SpecialType pType, int pParam) {
 		type = pType;
 		param = pParam;
 	}
 
-	/**	
-		Constructor (type only).
-		@param pType Special type value.
-	*/
-	SpecialAbility(SpecialType pType) {
-		this(pType, 0);
-	}
-	
-	/**	
-		Constructor (copy).
-		@param src Special source to copy.
-	*/
-	SpecialAbility(SpecialAbility src) {
-		this(src.type, src.param);
-	}
-	
 	//----------------------------------------------------------------------
 	//  Methods
 	//----------------------------------------------------------------------
 
 	/**
-		Create new special ability from a string.
+		Get the interned special ability for a type & parameter.
+		@param type Special type value.
+		@param param Special parameter value.
+		@return Shared special ability object.
+	*/
+	public static SpecialAbility valueOf(SpecialType type, int param) {
+		Long key = ((long) type.ordinal() << 32) | (param & 0xFFFFFFFFL);
+		SpecialAbility ability = REGISTRY.get(key);
+		if (ability == null) {
+			SpecialAbility fresh = new SpecialAbility(type, param);
+			ability = REGISTRY.putIfAbsent(key, fresh);
+			if (ability == null) {
+				ability = fresh;
+			}
+		}
+		return ability;
+	}
+
+	/**
+		Get the special ability for a descriptor string.
+		Descriptors seen before are looked up without parsing.
 		@param s Special ability descriptor.
-		@return Special ability object.
+		@return Shared special ability object (or null if invalid).
 	*/
 	public static SpecialAbility createFromString(String s) {
-		Pattern p = Pattern.compile("(\\w+)( \\(([-]?\\d+))?\\)?");
-		Matcher m = p.matcher(s);
+		SpecialAbility ability = PARSED.get(s);
+		if (ability == null) {
+			ability = parse(s);
+			if (ability != null) {
+				PARSED.putIfAbsent(s, ability);
+			}
+		}
+		return ability;
+	}
+
+	/**
+		Parse a special ability descriptor.
+	*/
+	private static SpecialAbility parse(String s) {
+		Matcher m = FORMAT.matcher(s);
 		if (m.matches()) {
 			SpecialType type = SpecialType.findByName(m.group(1));
 			if (type != null) {
-				return m.group(3) == null 
-					? new SpecialAbility(type) 
-					: new SpecialAbility(type, 
-						Integer.parseInt(m.group(3)));
+				return valueOf(type, m.group(3) == null ? 0
+					: Integer.parseInt(m.group(3)));
 			}
 			else {
 				System.err.println(
@@ -99,6 +136,38 @@ public class SpecialAbility {
 		return param; 
 	}
 
+	/**
+		Get a stable fingerprint of this ability's content.
+		@return 64-bit fingerprint (same in every run).
+	*/
+	public long getFingerprint() {
+		return Fingerprint.add(Fingerprint.add(Fingerprint.START, 
+			type.name()), param);
+	}
+
+	/**
+		Check if another object is the same ability.
+		@param o object to compare.
+		@return true if o has the same type & parameter.
+	*/
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof SpecialAbility)) {
+			return false;
+		}
+		SpecialAbility other = (SpecialAbility) o;
+		return type == other.type && param == other.param;
+	}
+
+	/**
+		Get a hash code consistent with equals.
+		@return hash code.
+	*/
+	@Override
+	public int hashCode() {
+		return 31 * type.hashCode() + param;
+	}
+
 	/**
 		Identify this object as a string.
 		@return String descriptor.
@@ -122,5 +191,7 @@ public class SpecialAbility {
 		System.out.println(createFromString("Flight (12)"));
 		System.out.println(createFromString("Flight (24)"));
 		System.out.println(createFromString("Swimming (18)"));
+		assert createFromString("Flight (12)") 
+			== valueOf(SpecialType.Flight, 12);
 	}
 }
@@ -1,3 +1,6 @@
+import java.util.HashMap;
+import java.util.Map;
+
 /**
 	Special ability types.
 	- Names should be nouns or noun phrases.
@@ -23,6 +26,20 @@ public enum SpecialType {
 	PoisonImmunity, FireVulnerability, MissileWard, Fear, 
 	Fearless, Animated, Conjured;
 	
+	//----------------------------------------------------------------------
+	//  Fields
+	//----------------------------------------------------------------------
+
+	/** Special types by name. */
+	private static final Map<String, SpecialType> BY_NAME
+		= new HashMap<String, SpecialType>();
+
+	static {
+		for (SpecialType t: values()) {
+			BY_NAME.put(t.name(), t);
+		}
+	}
+
 	//----------------------------------------------------------------------
 	//  Methods
 	//----------------------------------------------------------------------
@@ -33,12 +50,7 @@ public enum SpecialType {
 		@return Value of special type (or null).
 	*/
 	public static SpecialType findByName(String s) {
-		for (SpecialType t: SpecialType.values()) {
-			if (s.equals(t.name())) {
-				return t;
-			}
-		}
-		return null;
+		return BY_NAME.get(s);
 	}
 	
 	/**
@@ -1,6 +1,3 @@
-import java.util.Set;
-import java.util.HashSet;
-
 /**
 	One unit of figures.
 
@@ -18,47 +15,14 @@ public class Unit {
 	//----------------------------------------------------------------------
 
 	/** Conversion from internal width units to inches. */
-	private static final int WIDTH_UNITS_PER_INCH = 4;
+	static final int WIDTH_UNITS_PER_INCH = 4;
 
 	//----------------------------------------------------------------------
-	//  Fixed unit type fields
+	//  Fixed unit type
 	//----------------------------------------------------------------------
 
-	/** Name of the unit type. */
-	private String name;
-
-	/** Cost per figure. */
-	private int cost;
-	
-	/** Movement rate in inches. */
-	private int move;
-	
-	/** Armor value (6-point scale). */
-	private int armor;
-	
-	/** Health (as D&D hit dice). */
-	private int health;
-	
-	/** Number of melee attacks per turn. */
-	private int attacks;
-	
-	/** Damage inflicted per hit. */
-	private int damage;
-	
-	/** Rate of missile attacks per turn. */
-	private int rate;
-	
-	/** Range of missile attacks in inches. */
-	private int range;
-	
-	/** Width of figure in quarter-inch units. */
-	private int width;
-	
-	/** Alignment of the creature type. */
-	private Alignment alignment;
-
-	/** List of special abilities. */
-	private Set<SpecialAbility> specials;
+	/** Unit type statistics (immutable; shared by copies). */
+	private UnitType type;
 
 	//----------------------------------------------------------------------
 	//  Dynamic in-game play records
@@ -69,6 +33,12 @@ public class Unit {
 	
 	/** Number of figures across front. */
 	private int frontFiles;
+
+	/** Number of effective ranks (cached with formation). */
+	private int ranks;
+
+	/** Perimeter in quarter-inch units (cached with formation). */
+	private int perimeter;
 	
 	/** Damage taken up to a figure loss. */
 	private int damageTaken;
@@ -91,6 +61,18 @@ public class Unit {
 	/** Solo leader embedded with this unit. */
 	private Solo leader;
 
+	/** Unit in which this figure is embedded (if any). */
+	private Unit host;
+
+	/** Is our embedded leader active? (cached phase flag) */
+	private boolean leaderActive;
+
+	/** Are we reduced to a lone leader? (cached phase flag) */
+	private boolean loneLeader;
+
+	/** Is our host unit active? (cached phase flag) */
+	private boolean hostActive;
+
 	//----------------------------------------------------------------------
 	//  Constructors
 	//----------------------------------------------------------------------
@@ -100,41 +82,27 @@ public class Unit {
 		@param s descriptor string array.
 	*/
 	public Unit(String[] s) {
-		name = s[0];
-		cost = Integer.parseInt(s[1]);
-		move = Integer.parseInt(s[2]);
-		armor = Integer.parseInt(s[3]);
-		health = Integer.parseInt(s[4]);
-		attacks = Integer.parseInt(s[5]);
-		damage = Integer.parseInt(s[6]);
-		rate = Integer.parseInt(s[7]);
-		range = Integer.parseInt(s[8]);		
-		width = Integer.parseInt(s[9]);
-		alignment = parseAlignment(s[10]);		
-		parseSpecials(s[11]);
+		this(new UnitType(s, false));
+	}
+
+	/**
+		Constructor (from unit type).
+		@param pType unit type statistics.
+	*/
+	public Unit(UnitType pType) {
+		type = pType;
 	}
 
 	/**
 		Constructor (copy).
+		Shares the immutable type; in-play records are not copied.
 		@param src source unit to copy.
 	*/
 	public Unit(Unit src) {
-		name = src.name;
-		cost = src.cost;
-		move = src.move;
-		armor = src.armor;
-		health = src.health;
-		attacks = src.attacks;
-		damage = src.damage;
-		rate = src.rate;
-		range = src.range;
-		width = src.width;
-		alignment = src.alignment;
-		specials = new HashSet<SpecialAbility>(src.specials);
+		type = src.type;
 		if (src.leader != null) {
 			setLeader(new Solo(src.leader));
 		}
-		// Other in-play records not copied
 	}
 
 	//----------------------------------------------------------------------
@@ -142,75 +110,44 @@ public class Unit {
 	//----------------------------------------------------------------------
 
 	// Unit type statistics
-	public String getName() { return name; };
-	public int getCost() { return cost; };
-	public int getArmor() { return armor; };
-	public int getHealth() { return health; };
-	public int getAttacks() { return attacks; };
-	public int getDamage() { return damage; };
-	public int getRate() { return rate; };
-	public int getRange() { return range; };
-	public Alignment getAlignment() { return alignment; };
+	public UnitType getType() { return type; };
+	public String getName() { return type.getName(); };
+	public int getCost() { return type.getCost(); };
+	public int getArmor() { return type.getArmor(); };
+	public int getHealth() { return type.getHealth(); };
+	public int getAttacks() { return type.getAttacks(); };
+	public int getDamage() { return type.getDamage(); };
+	public int getRate() { return type.getRate(); };
+	public int getRange() { return type.getRange(); };
+	public Alignment getAlignment() { return type.getAlignment(); };
 
 	// Unit in-play records
 	public int getFigures() { return figures; };
 	public int getFiles() { return frontFiles; }
 	public int getFigsLostInTurn() { return figsLostInTurn; };
+	public int getDamageTaken() { return damageTaken; };
 	public int getCharges() { return specialCharges; }
-	public boolean hasMissiles() { return range > 0; };
+	public boolean hasMissiles() { return type.getRange() > 0; };
 	public boolean isVisible() { return visible; };
 	public Solo getLeader() { return leader; };
+	public Unit getHost() { return host; }
+	public boolean hasHost() { return host != null; }
 
-	// Methods to be overridden by sublass
-	public boolean isSmallTarget() { return false; }
-	public boolean isSweepable() { return health <= 1; }
-	public boolean autoHits() { return false; }
-	public boolean getsSaves() { return false; }
-	public boolean hasHost() { return false; }
-	public boolean hasActiveHost() { return false; }
-	public Unit getHost() { return null; }
-	
-	/**
-		Parse alignment code.
-		@param s alignment descriptor.
-		@return alignment enumeration.
-	*/
-	private Alignment parseAlignment(String s) {
-		if (s.length() > 0) {
-			switch (s.charAt(0)) {
-				case 'L': return Alignment.Lawful;
-				case 'C': return Alignment.Chaotic;
-				default: return Alignment.Neutral;
-			}
-		}
-		return Alignment.Neutral;
-	}
+	// Solo figures never check morale, always hit, present small
+	// targets, get saves vs. magic, and are never swept.
+	public boolean isSolo() { return type.isSolo(); }
+	public boolean isSmallTarget() { return type.isSolo(); }
+	public boolean isSweepable() { return type.isSweepable(); }
+	public boolean autoHits() { return type.isSolo(); }
+	public boolean getsSaves() { return type.isSolo(); }
 
-	/**
-		Parse specials list.
-		@param specialString descriptor of special abilities.
-	*/
-	private void parseSpecials(String specialString) {
-		specials = new HashSet<SpecialAbility>();
-		if (!specialString.equals("-")) {
-			String[] splits = specialString.split(", ");
-			for (String s: splits) {
-				SpecialAbility ability 
-					= SpecialAbility.createFromString(s);
-				if (ability != null) {
-					specials.add(ability);
-				}
-			}
-		}
-	}
-	
 	/**
 		Get the movement rate.
 		@return the current move rate.
 	*/
 	public int getMove() { 
 		return hasActiveLeader()
-			? Math.min(move, leader.getMove()) : move;
+			? Math.min(type.getMove(), leader.getMove()) : type.getMove();
 	};
 
 	/**
@@ -220,6 +157,7 @@ public class Unit {
 	public void setLeader(Solo newLeader) { 
 		leader = newLeader;
 		leader.setHost(this);
+		updatePhase();
 	}
 
 	/**
@@ -227,8 +165,40 @@ public class Unit {
 		@param newCost the new cost.
 	*/
 	public void setCost(int newCost) {
-		assert newCost >= 1;
-		cost = newCost;
+		type = type.withCost(newCost);
+	}
+
+	/** 
+		Set our host unit.
+		@param newHost the new host unit.
+	*/
+	public void setHost(Unit newHost) {
+		host = newHost;
+		updatePhase();
+	}
+
+	/** 
+		Check if we have an active host unit.
+		@return true if we have an active host unit.
+	*/
+	public boolean hasActiveHost() { 
+		return hostActive;
+	}
+
+	/**
+		Update cached phase flags for the host & leader pair.
+		Called whenever figures are set or lost, or a rout happens,
+		in either part, so turn-by-turn checks need not follow the
+		host & leader links.
+	*/
+	private void updatePhase() {
+		Unit main = (host == null) ? this : host;
+		Unit lead = main.leader;
+		main.leaderActive = lead != null && !lead.isNormalBeaten();
+		main.loneLeader = main.leaderActive && main.isNormalBeaten();
+		if (lead != null) {
+			lead.hostActive = !main.isNormalBeaten();
+		}
 	}
 
 	/**
@@ -240,6 +210,8 @@ public class Unit {
 		figures = numFigs;
 		routed = false;
 		damageTaken = 0;
+		updateFormation();
+		updatePhase();
 	}
 
 	/**
@@ -250,6 +222,23 @@ public class Unit {
 		assert files >= 0;
 		assert files <= figures;
 		frontFiles = files;	
+		updateFormation();
+	}
+
+	/**
+		Update cached ranks & perimeter after a formation change.
+	*/
+	private void updateFormation() {
+		ranks = 0;
+		if (frontFiles >= 1) {
+			ranks = figures / frontFiles;
+			int backrow = figures % frontFiles;
+			if (backrow * 2 >= frontFiles) {
+				ranks++;
+			}
+		}
+		perimeter = 2 * (frontFiles * type.getWidth()
+			+ ranks * type.getLength());
 	}
 
 	/**
@@ -257,70 +246,101 @@ public class Unit {
 		@return one figure's width in database pips.
 	*/
 	public int getFigWidthPips() { 
-		return width;
+		return type.getWidth();
 	};
 	
 	/**
-		Get one figure's width.
-		@return one figure's width in inches.
+		Get one figure's raw length.
+		@return one figure's length in database pips.
 	*/
-	public double getFigWidth() { 
-		return (double) width / WIDTH_UNITS_PER_INCH; 
-	};
+	public int getFigLengthPips() {
+		return type.getLength();
+	}
 
 	/**
-		Get one figure's length.
-		@return one figure's length in inches.
+		Get how many effective ranks we have.
+		@return number of ranks in unit.
 	*/
-	public double getFigLength() {
-		return hasSpecial(SpecialType.Mounts) 
-			? 2 * getFigWidth() : getFigWidth();
+	public int getRanks() {
+		return ranks;
 	}
 
 	/**
-		Compute how many effective ranks we have.
-		@return number of ranks in unit.
+		Get width of unit.
+		@return width of unit in database pips.
 	*/
-	public int getRanks() {
-		int files = getFiles();
-		if (files < 1) {
-			return 0;
+	public int getTotalWidthPips() {
+		return frontFiles * type.getWidth();
+	}
+
+	/**
+		Get length of unit.
+		@return length of unit in database pips.
+	*/
+	public int getTotalLengthPips() {
+		return ranks * type.getLength();
+	}
+
+	/**
+		Get perimeter around entire unit.
+		@return perimeter around unit in database pips.
+	*/
+	public int getPerimeterPips() {
+		if (figures == 0 && leaderActive) {
+			return leader.getPerimeterPips();
 		}
-		int ranks = figures / files;
-		int backrow = figures % files;
-		if (backrow * 2 >= files) {
-			ranks++;
+		else {
+			return perimeter;
 		}
-		return ranks;	
 	}
 
 	/**
-		Compute width of unit.
+		Get one figure's width (for display).
+		@return one figure's width in inches.
+	*/
+	public double getFigWidth() { 
+		return toInches(type.getWidth());
+	};
+
+	/**
+		Get one figure's length (for display).
+		@return one figure's length in inches.
+	*/
+	public double getFigLength() {
+		return toInches(type.getLength());
+	}
+
+	/**
+		Get width of unit (for display).
 		@return width of unit in inches.
 	*/
 	public double getTotalWidth() {
-		return getFiles() * getFigWidth();
+		return toInches(getTotalWidthPips());
 	}
 
 	/**
-		Compute length of unit.
+		Get length of unit (for display).
 		@return length of unit in inches.
 	*/
 	public double getTotalLength() {
-		return getRanks() * getFigLength();
+		return toInches(getTotalLengthPips());
 	}
 
 	/**
-		Compute perimeter around entire unit.
+		Get perimeter around entire unit (for display).
 		@return perimeter around unit in inches.
 	*/
 	public double getPerimeter() {
-		if (figures == 0 && hasActiveLeader()) {
-			return leader.getPerimeter();
-		}
-		else {
-			return 2 * (getTotalWidth() + getTotalLength());
-		}
+		return toInches(getPerimeterPips());
+	}
+
+	/**
+		Convert database pips to inches.
+		@param pips distance in database pips.
+		@return distance in inches.
+	*/
+	public static double toInches(int pips) {
+		return (double) pips / WIDTH_UNITS_PER_INCH;
 	}
 
 	/**
@@ -335,6 +355,8 @@ public class Unit {
  		if (figures < frontFiles) {
  			frontFiles = figures;
  		}
+		updateFormation();
+		updatePhase();
 		return lost;
 	}
 
@@ -346,6 +368,7 @@ public class Unit {
 	public int takeDamage(int points) {
 		assert points >= 0;
 		damageTaken += points;
+		int health = type.getHealth();
 		int figsKilled = damageTaken / health;
 		damageTaken = damageTaken % health;
 		return removeFigures(figsKilled);
@@ -375,7 +398,7 @@ public class Unit {
 		@return true if this unit is totally nonfunctional.
 	*/
 	public boolean isTotallyBeaten() {
-		return isNormalBeaten() && !hasActiveLeader();	
+		return isNormalBeaten() && !leaderActive;	
 	}
 
 	/**
@@ -384,12 +407,8 @@ public class Unit {
 		@return special ability object (or null)
 	*/
 	public SpecialAbility getAbilityByType(SpecialType type) {
-		for (SpecialAbility a: specials) {
-			if (a.getType() == type) {
-				return a;
-			}
-		}
-		return null;
+		return hasSpecial(type) 
+			? SpecialAbility.valueOf(type, getSpecialParam(type)) : null;
 	}
 
 	/**
@@ -398,8 +417,7 @@ public class Unit {
 		@return true if unit has that type of ability.
 	*/
 	public boolean hasSpecial(SpecialType type) {
-		SpecialAbility ability = getAbilityByType(type);
-		return ability != null;	
+		return this.type.hasSpecial(type);
 	}
 
 	/**
@@ -408,8 +426,15 @@ public class Unit {
 		@return parameter value of special ability.
 	*/
 	public int getSpecialParam(SpecialType type) {
-		SpecialAbility ability = getAbilityByType(type);
-		return ability != null ? ability.getParam() : 0;
+		return this.type.getSpecialParam(type);
+	}
+
+	/**
+		Count the special abilities of this unit.
+		@return number of special abilities.
+	*/
+	public int getNumSpecials() {
+		return type.getNumSpecials();
 	}
 
 	/**
@@ -417,12 +442,7 @@ public class Unit {
 		@return this unit's breath weapon (or null).
 	*/
 	public SpecialAbility getBreathWeapon() {
-		for (SpecialAbility ability: specials) {
-			if (ability.getType().isBreathWeapon()) {
-				return ability;
-			}
-		}
-		return null;
+		return type.getBreathWeapon();
 	}
 
 	/**
@@ -506,6 +526,7 @@ public class Unit {
 		if (routed) {
 			removeFigures(figures);
 		}
+		updatePhase();
 	}
 
 	/**
@@ -546,7 +567,7 @@ public class Unit {
 		@return true if unit has an active leader.
 	*/
 	public boolean hasActiveLeader() {
-		return leader != null && !leader.isNormalBeaten(); 
+		return leaderActive;
 	}
 
 	/**
@@ -554,7 +575,15 @@ public class Unit {
 		@return true if only a leader remains.
 	*/
 	public boolean isLoneLeader() {
-		return isNormalBeaten() && hasActiveLeader();	
+		return loneLeader;
+	}
+
+	/**
+		Get the figures that take attacks against this unit.
+		@return our leader if only a leader remains, else this unit.
+	*/
+	public Unit getTarget() {
+		return loneLeader ? leader : this;
 	}
 
 	/**
@@ -562,12 +591,7 @@ public class Unit {
 		@return true if we can cast magic spells.
 	*/
 	public boolean isCaster() {
-		for (SpecialAbility a: specials) {
-			if (a.getType().isSpellCasting()) {
-				return true;
-			}		
-		}
-		return false;
+		return type.isCaster();
 	}
 
 	/**
@@ -575,7 +599,7 @@ public class Unit {
 		@return true if we have a casting leader.
 	*/
 	public boolean hasCasterLeader() {
-		return hasActiveLeader() && leader.isCaster();
+		return leaderActive && leader.isCaster();
 	}
 
 	/**
@@ -595,7 +619,7 @@ public class Unit {
 		@return true if we are immune to morale checks.
 	*/
 	public boolean isFearless() { 
-		return hasSpecial(SpecialType.Fearless); 
+		return type.isFearless(); 
 	}
 
 	/**
@@ -603,12 +627,7 @@ public class Unit {
 		@return true if we require a controller.
 	*/
 	public boolean isControlRequired() {
-		for (SpecialAbility a: specials) {
-			if (a.getType().isControlRequired()) {
-				return true;
-			}		
-		}
-		return false;
+		return type.isControlRequired();
 	}
 
 	/**
@@ -627,6 +646,48 @@ public class Unit {
 		savedVsFear = saved;	
 	}
 
+	/**
+		Get a stable fingerprint of this unit's content.
+		Combines the type with any leader's type; in-play records
+		are not included.
+		@return 64-bit fingerprint.
+	*/
+	public long getFingerprint() {
+		long h = type.getFingerprint();
+		if (leader != null) {
+			h = Fingerprint.add(h, leader.getFingerprint());
+		}
+		return h;
+	}
+
+	/**
+		Get a stable fingerprint of this unit's content, less cost.
+		Combines the type with any leader's type, neither with cost;
+		units that differ only in cost have the same one.
+		@return 64-bit fingerprint.
+	*/
+	public long getStatsFingerprint() {
+		long h = type.getStatsFingerprint();
+		if (leader != null) {
+			h = Fingerprint.add(h, leader.getStatsFingerprint());
+		}
+		return h;
+	}
+
+	/**
+		Check if another unit is identical for simulation purposes.
+		Compares type statistics & any leader; in-play records are
+		not compared. (Units are mutable in play, so equals stays
+		identity; key maps on getFingerprint instead.)
+		@param other unit to compare.
+		@return true if other plays identically to this unit.
+	*/
+	public boolean playsSameAs(Unit other) {
+		return type.equals(other.type)
+			&& (leader == null ? other.leader == null
+				: other.leader != null && leader.playsSameAs(other.leader));
+	}
+
 	/**
 		Return a plural suffix if needed.
 		@param n a number.
@@ -641,6 +702,7 @@ public class Unit {
 		@return string representation of this unit.
 	*/
 	public String toString() {
+		String name = getName();
 		String s = name + " (" + figures + " fig" + plural(figures) 
 			+ ", " + getRanks() + " rank" + plural(getRanks());
 		if (hasActiveLeader()) {
@@ -655,6 +717,7 @@ public class Unit {
 		@return short abbreviation for unit.
 	*/
 	public String getAbbreviation() {
+		String name = getName();
 		String s = "" + name.charAt(0);
 		for (int i = 1; i < name.length() - 1; i++) {
 			if (name.charAt(i) == ' ' && s.length() < 2) {
@@ -0,0 +1,240 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+	Attribute index over the unit catalog.
+
+	Indexes basic & solo units by special type, alignment, missile or
+	melee, solo or basic, and cost, and selects units by a selector
+	string. A selector is one or more alternatives separated by commas;
+	each alternative is one or more terms joined by '+', all of which
+	must match. A term may be negated with a leading '!'. Terms:
+
+	- a special type name (e.g., Flight, Pikes, FireBreath)
+	- an alignment (lawful, neutral, chaotic)
+	- missile (has missile attacks) or melee (no missile attacks)
+	- basic or solo
+	- cost=lo-hi (cost per figure in range; either end may be omitted)
+	- all
+
+	Example: "Flight+!solo,missile" selects basic flyers and all units
+	with missiles. Costs are indexed as they stand when the index is
+	built. Selected units keep catalog order (basic units, then solos).
+
+	@author agent
+	@since 2026-10-18
+*/
+
+public class UnitIndex {
+
+	//----------------------------------------------------------------------
+	//  Fields
+	//----------------------------------------------------------------------
+
+	/** Indexed units (basic units, then solos). */
+	private List<Unit> units = new ArrayList<Unit>();
+
+	/** Units by special type. */
+	private Map<SpecialType, BitSet> bySpecial
+		= new EnumMap<SpecialType, BitSet>(SpecialType.class);
+
+	/** Units by alignment. */
+	private Map<Unit.Alignment, BitSet> byAlignment
+		= new EnumMap<Unit.Alignment, BitSet>(Unit.Alignment.class);
+
+	/** Units with missile attacks. */
+	private BitSet missile = new BitSet();
+
+	/** Solo units. */
+	private BitSet solo = new BitSet();
+
+	/** Unit positions sorted by cost. */
+	private int[] byCost;
+
+	/** Costs in sorted order (parallel to byCost). */
+	private int[] sortedCosts;
+
+	//----------------------------------------------------------------------
+	//  Constructor
+	//----------------------------------------------------------------------
+
+	/**
+		Build index over unit lists.
+		@param basics list of basic unit types.
+		@param solos list of solo unit types.
+	*/
+	public UnitIndex(List<? extends Unit> basics, List<? extends Unit> solos) {
+		units.addAll(basics);
+		units.addAll(solos);
+		for (SpecialType type: SpecialType.values()) {
+			bySpecial.put(type, new BitSet());
+		}
+		for (Unit.Alignment align: Unit.Alignment.values()) {
+			byAlignment.put(align, new BitSet());
+		}
+
+		// Index attributes
+		long[] costKeys = new long[units.size()];
+		for (int i = 0; i < units.size(); i++) {
+			Unit unit = units.get(i);
+			for (SpecialType type: SpecialType.values()) {
+				if (unit.hasSpecial(type)) {
+					bySpecial.get(type).set(i);
+				}
+			}
+			byAlignment.get(unit.getAlignment()).set(i);
+			missile.set(i, unit.hasMissiles());
+			solo.set(i, unit.isSolo());
+			costKeys[i] = ((long) unit.getCost() << 32) | i;
+		}
+
+		// Sort positions by cost (ties by position)
+		Arrays.sort(costKeys);
+		byCost = new int[units.size()];
+		sortedCosts = new int[units.size()];
+		for (int i = 0; i < costKeys.length; i++) {
+			byCost[i] = (int) costKeys[i];
+			sortedCosts[i] = (int) (costKeys[i] >>> 32);
+		}
+	}
+
+	//----------------------------------------------------------------------
+	//  Methods
+	//----------------------------------------------------------------------
+
+	/**
+		Select units matching a selector.
+		@param selector selector string (see class notes).
+		@return list of matching units in catalog order.
+		@throws IllegalArgumentException if selector has a bad term.
+	*/
+	public List<Unit> selectUnits(String selector) {
+		BitSet bits = select(selector);
+		List<Unit> list = new ArrayList<Unit>(bits.cardinality());
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+			list.add(units.get(i));
+		}
+		return list;
+	}
+
+	/**
+		Find positions of units matching a selector.
+		@param selector selector string (see class notes).
+		@return set of matching positions.
+		@throws IllegalArgumentException if selector has a bad term.
+	*/
+	public BitSet select(String selector) {
+		BitSet result = new BitSet();
+		for (String alternative: selector.split(",")) {
+			BitSet match = new BitSet();
+			match.set(0, units.size());
+			for (String term: alternative.split("\\+")) {
+				match.and(selectTerm(term.trim()));
+			}
+			result.or(match);
+		}
+		return result;
+	}
+
+	/**
+		Find positions of units matching one term.
+	*/
+	private BitSet selectTerm(String term) {
+		if (term.startsWith("!")) {
+			BitSet bits = selectTerm(term.substring(1));
+			bits.flip(0, units.size());
+			return bits;
+		}
+		String lower = term.toLowerCase();
+		if (lower.startsWith("cost=")) {
+			return selectCost(term.substring(5));
+		}
+		switch (lower) {
+			case "all": return allUnits();
+			case "missile": return (BitSet) missile.clone();
+			case "melee": return complement(missile);
+			case "solo": return (BitSet) solo.clone();
+			case "basic": return complement(solo);
+			default: break;
+		}
+		for (Unit.Alignment align: Unit.Alignment.values()) {
+			if (align.name().equalsIgnoreCase(term)) {
+				return (BitSet) byAlignment.get(align).clone();
+			}
+		}
+		for (SpecialType type: SpecialType.values()) {
+			if (type.name().equalsIgnoreCase(term)) {
+				return (BitSet) bySpecial.get(type).clone();
+			}
+		}
+		throw new IllegalArgumentException("Unknown selector term: " + term);
+	}
+
+	/**
+		Find positions of units in a cost band ("lo-hi").
+	*/
+	private BitSet selectCost(String band) {
+		int dash = band.indexOf('-');
+		int low, high;
+		try {
+			if (dash < 0) {
+				low = high = Integer.parseInt(band);
+			}
+			else {
+				String lowStr = band.substring(0, dash);
+				String highStr = band.substring(dash + 1);
+				low = lowStr.isEmpty() ? 0 : Integer.parseInt(lowStr);
+				high = highStr.isEmpty() ? Integer.MAX_VALUE
+					: Integer.parseInt(highStr);
+			}
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Bad cost band: " + band);
+		}
+		BitSet bits = new BitSet();
+		int start = lowerBound(low);
+		for (int i = start; i < byCost.length && sortedCosts[i] <= high; i++) {
+			bits.set(byCost[i]);
+		}
+		return bits;
+	}
+
+	/**
+		Find first sorted position with cost at least some value.
+	*/
+	private int lowerBound(int cost) {
+		int low = 0, high = sortedCosts.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (sortedCosts[mid] < cost) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+		Get set of all unit positions.
+	*/
+	private BitSet allUnits() {
+		BitSet bits = new BitSet();
+		bits.set(0, units.size());
+		return bits;
+	}
+
+	/**
+		Get complement of a set of positions.
+	*/
+	private BitSet complement(BitSet bits) {
+		BitSet comp = (BitSet) bits.clone();
+		comp.flip(0, units.size());
+		return comp;
+	}
+}
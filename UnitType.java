@@ -0,0 +1,382 @@
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+	Fixed statistics for one unit type.
+
+	Instances are immutable once built, so one type may be shared by
+	any number of in-game units on any number of threads. Behavior
+	that differs for solo figures is held in flags set at load time,
+	not in subclass overrides.
+
+	@author agent
+	@since 2026-10-18
+*/
+
+public class UnitType {
+
+	//----------------------------------------------------------------------
+	//  Constants
+	//----------------------------------------------------------------------
+
+	/** Separator between special ability descriptors. */
+	private static final Pattern SPECIALS_SEPARATOR = Pattern.compile(", ");
+
+	//----------------------------------------------------------------------
+	//  Fields
+	//----------------------------------------------------------------------
+
+	/** Name of the unit type. */
+	private final String name;
+
+	/** Cost per figure. */
+	private final int cost;
+
+	/** Movement rate in inches. */
+	private final int move;
+
+	/** Armor value (6-point scale). */
+	private final int armor;
+
+	/** Health (as D&D hit dice). */
+	private final int health;
+
+	/** Number of melee attacks per turn. */
+	private final int attacks;
+
+	/** Damage inflicted per hit. */
+	private final int damage;
+
+	/** Rate of missile attacks per turn. */
+	private final int rate;
+
+	/** Range of missile attacks in inches. */
+	private final int range;
+
+	/** Width of figure in quarter-inch units. */
+	private final int width;
+
+	/** Length of figure in quarter-inch units. */
+	private final int length;
+
+	/** Alignment of the creature type. */
+	private final Unit.Alignment alignment;
+
+	/** Bit mask of special ability types (by ordinal). */
+	private final long specialMask;
+
+	/** Special ability parameters (by ordinal; never modified). */
+	private final int[] specialParams;
+
+	/** Breath weapon ability (or null). */
+	private final SpecialAbility breathWeapon;
+
+	/** Do we have any spell-casting ability? */
+	private final boolean caster;
+
+	/** Do we have any ability that requires a controller? */
+	private final boolean controlRequired;
+
+	/** Is this a solo figure type? */
+	private final boolean solo;
+
+	/** Are we immune to morale checks? */
+	private final boolean fearless;
+
+	/** Are we subject to sweep attacks? */
+	private final boolean sweepable;
+
+	/** Content fingerprint (all stats but name). */
+	private final long fingerprint;
+
+	/** Content fingerprint (all stats but name & cost). */
+	private final long statsFingerprint;
+
+	//----------------------------------------------------------------------
+	//  Constructors
+	//----------------------------------------------------------------------
+
+	/**
+		Constructor (from string array).
+		@param s descriptor string array.
+		@param isSolo true if this is a solo figure type.
+	*/
+	public UnitType(String[] s, boolean isSolo) {
+		this(s, isSolo, new int[SpecialType.values().length]);
+	}
+
+	/**
+		Constructor (from string array, filling new parameter array).
+	*/
+	private UnitType(String[] s, boolean isSolo, int[] params) {
+		this(s[0], Integer.parseInt(s[1]), Integer.parseInt(s[2]),
+			Integer.parseInt(s[3]), Integer.parseInt(s[4]),
+			Integer.parseInt(s[5]), Integer.parseInt(s[6]),
+			Integer.parseInt(s[7]), Integer.parseInt(s[8]),
+			Integer.parseInt(s[9]), parseAlignment(s[10]),
+			parseSpecials(s[11], params), params, isSolo);
+	}
+
+	/**
+		Constructor (from field values).
+		@param pName name of the unit type.
+		@param pCost cost per figure.
+		@param pMove movement rate in inches.
+		@param pArmor armor value.
+		@param pHealth health in hit dice.
+		@param pAttacks melee attacks per turn.
+		@param pDamage damage per hit.
+		@param pRate missile attacks per turn.
+		@param pRange missile range in inches.
+		@param pWidth figure width in quarter-inch units.
+		@param pAlignment alignment of the creature type.
+		@param pSpecialMask bit mask of special types (by ordinal).
+		@param pSpecialParams special parameters (by ordinal; kept).
+		@param isSolo true if this is a solo figure type.
+	*/
+	UnitType(String pName, int pCost, int pMove, int pArmor, int pHealth,
+		int pAttacks, int pDamage, int pRate, int pRange, int pWidth,
+		Unit.Alignment pAlignment, long pSpecialMask, int[] pSpecialParams,
+		boolean isSolo)
+	{
+		assert pSpecialParams.length == SpecialType.values().length;
+		name = pName;
+		cost = pCost;
+		move = pMove;
+		armor = pArmor;
+		health = pHealth;
+		attacks = pAttacks;
+		damage = pDamage;
+		rate = pRate;
+		range = pRange;
+		width = pWidth;
+		alignment = pAlignment;
+		specialMask = pSpecialMask;
+		specialParams = pSpecialParams;
+
+		// Derived flags from specials
+		SpecialAbility breath = null;
+		boolean anyCaster = false, anyControl = false;
+		for (SpecialType type: SpecialType.values()) {
+			if (hasSpecial(type)) {
+				if (type.isBreathWeapon()) {
+					breath = SpecialAbility.valueOf(type, 
+						getSpecialParam(type));
+				}
+				anyCaster |= type.isSpellCasting();
+				anyControl |= type.isControlRequired();
+			}
+		}
+		breathWeapon = breath;
+		caster = anyCaster;
+		controlRequired = anyControl;
+		length = hasSpecial(SpecialType.Mounts) ? 2 * width : width;
+
+		// Solo figures never check morale & are never swept
+		solo = isSolo;
+		fearless = solo || hasSpecial(SpecialType.Fearless);
+		sweepable = !solo && health <= 1;
+		fingerprint = makeFingerprint(true);
+		statsFingerprint = makeFingerprint(false);
+	}
+
+	//----------------------------------------------------------------------
+	//  Methods
+	//----------------------------------------------------------------------
+
+	// Unit type statistics
+	public String getName() { return name; };
+	public int getCost() { return cost; };
+	public int getMove() { return move; };
+	public int getArmor() { return armor; };
+	public int getHealth() { return health; };
+	public int getAttacks() { return attacks; };
+	public int getDamage() { return damage; };
+	public int getRate() { return rate; };
+	public int getRange() { return range; };
+	public int getWidth() { return width; };
+	public int getLength() { return length; };
+	public Unit.Alignment getAlignment() { return alignment; };
+
+	// Derived flags
+	public boolean isSolo() { return solo; }
+	public boolean isFearless() { return fearless; }
+	public boolean isSweepable() { return sweepable; }
+	public boolean isCaster() { return caster; }
+	public boolean isControlRequired() { return controlRequired; }
+	public SpecialAbility getBreathWeapon() { return breathWeapon; }
+
+	/**
+		Parse alignment code.
+		@param s alignment descriptor.
+		@return alignment enumeration.
+	*/
+	private static Unit.Alignment parseAlignment(String s) {
+		if (s.length() > 0) {
+			switch (s.charAt(0)) {
+				case 'L': return Unit.Alignment.Lawful;
+				case 'C': return Unit.Alignment.Chaotic;
+				default: return Unit.Alignment.Neutral;
+			}
+		}
+		return Unit.Alignment.Neutral;
+	}
+
+	/**
+		Parse specials list.
+		@param specialString descriptor of special abilities.
+		@param params array to fill with parameters (by ordinal).
+		@return bit mask of special types (by ordinal).
+	*/
+	private static long parseSpecials(String specialString, int[] params) {
+		assert SpecialType.values().length <= Long.SIZE;
+		long mask = 0;
+		if (!specialString.equals("-")) {
+			for (String desc: SPECIALS_SEPARATOR.split(specialString)) {
+				SpecialAbility ability
+					= SpecialAbility.createFromString(desc);
+				if (ability != null) {
+					SpecialType type = ability.getType();
+					mask |= 1L << type.ordinal();
+					params[type.ordinal()] = ability.getParam();
+				}
+			}
+		}
+		return mask;
+	}
+
+	/**
+		Get a copy of this type with a different cost.
+		@param newCost the new cost.
+		@return type identical except for cost.
+	*/
+	public UnitType withCost(int newCost) {
+		assert newCost >= 1;
+		return newCost == cost ? this
+			: new UnitType(name, newCost, move, armor, health, attacks, 
+				damage, rate, range, width, alignment, specialMask, 
+				specialParams, solo);
+	}
+
+	/**
+		Find if type has a special of a given type.
+		@param type special ability type.
+		@return true if we have that type of ability.
+	*/
+	public boolean hasSpecial(SpecialType type) {
+		return (specialMask & (1L << type.ordinal())) != 0;
+	}
+
+	/**
+		Get the parameter for a given special type.
+		@param type special ability type.
+		@return parameter value of special ability.
+	*/
+	public int getSpecialParam(SpecialType type) {
+		return specialParams[type.ordinal()];
+	}
+
+	/**
+		Count the special abilities of this type.
+		@return number of special abilities.
+	*/
+	public int getNumSpecials() {
+		return Long.bitCount(specialMask);
+	}
+
+	/**
+		Get the bit mask of special types.
+		@return bit mask of special types (by ordinal).
+	*/
+	public long getSpecialMask() {
+		return specialMask;
+	}
+
+	/**
+		Compute content fingerprint from all stats but name
+		(and cost, if not included).
+		Specials are folded in by name, in ordinal order.
+	*/
+	private long makeFingerprint(boolean withCost) {
+		long h = Fingerprint.START;
+		if (withCost) {
+			h = Fingerprint.add(h, cost);
+		}
+		int[] stats = {move, armor, health, attacks, 
+			damage, rate, range, width};
+		for (int stat: stats) {
+			h = Fingerprint.add(h, stat);
+		}
+		h = Fingerprint.add(h, alignment.name());
+		h = Fingerprint.add(h, solo ? 1 : 0);
+		for (SpecialType type: SpecialType.values()) {
+			if (hasSpecial(type)) {
+				h = Fingerprint.add(h, type.name());
+				h = Fingerprint.add(h, getSpecialParam(type));
+			}
+		}
+		return h;
+	}
+
+	/**
+		Get a stable fingerprint of this type's content.
+		Types that play identically (whatever their names) have the 
+		same fingerprint, in every run.
+		@return 64-bit fingerprint.
+	*/
+	public long getFingerprint() {
+		return fingerprint;
+	}
+
+	/**
+		Get a stable fingerprint of this type's content, less cost.
+		Types that differ only in name & cost have the same one.
+		@return 64-bit fingerprint.
+	*/
+	public long getStatsFingerprint() {
+		return statsFingerprint;
+	}
+
+	/**
+		Check if another type has identical statistics.
+		Names are not compared: two types that play the same
+		are the same for simulation purposes.
+		@param o object to compare.
+		@return true if o has the same stats & specials.
+	*/
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof UnitType)) {
+			return false;
+		}
+		UnitType other = (UnitType) o;
+		return fingerprint == other.fingerprint
+			&& cost == other.cost && move == other.move
+			&& armor == other.armor && health == other.health
+			&& attacks == other.attacks && damage == other.damage
+			&& rate == other.rate && range == other.range
+			&& width == other.width && alignment == other.alignment
+			&& solo == other.solo && specialMask == other.specialMask
+			&& Arrays.equals(specialParams, other.specialParams);
+	}
+
+	/**
+		Get a hash code consistent with equals.
+		@return hash code.
+	*/
+	@Override
+	public int hashCode() {
+		return (int) (fingerprint ^ (fingerprint >>> 32));
+	}
+
+	/**
+		Get a string representation of this object.
+		@return name of this unit type.
+	*/
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,148 @@
+/**
+	Text log of game events for the zoom-in game mode.
+
+	@author agent
+	@since 2026-10-18
+*/
+
+public class ZoomInLog implements GameObserver {
+
+	/** Start of the report for an attack in progress. */
+	private String attackReport;
+
+	/**
+		Print one line of the log.
+		@param s text to print.
+	*/
+	private void print(String s) {
+		System.out.println(s);
+	}
+
+	@Override
+	public void onBattlefield(BookOfWar.Terrain terrain,
+		BookOfWar.Weather weather, int distance)
+	{
+		print("Terrain: " + terrain);
+		print("Weather: " + weather);
+		print("Distance: " + distance);
+	}
+
+	@Override
+	public void onUnitsReady(int budget, Unit unit1, Unit unit2) {
+		print("Budget: " + budget);
+		print("Units: " + unit1 + " vs. " + unit2);
+	}
+
+	@Override
+	public void onMove(Unit unit, int distance, boolean forward) {
+		print(unit + (forward ? " move to distance "
+			: " move back to distance ") + distance);
+	}
+
+	@Override
+	public void onTeleport(Unit unit) {
+		print(unit + " * TELEPORTS * into combat");
+	}
+
+	@Override
+	public void onAttack(Unit attacker, Unit defender, boolean ranged) {
+		attackReport = attacker
+			+ (ranged ? " shoot " : " attack ") + defender + ": ";
+	}
+
+	@Override
+	public void onAttackBarred(Unit attacker, Unit defender, boolean ranged) {
+		print(attacker + (ranged ? " barred from shooting "
+			: " barred from attacking ") + defender);
+	}
+
+	@Override
+	public void onDamage(Unit defender, int figsKilled) {
+		print(attackReport + figsKilled + " fig"
+			+ defender.plural(figsKilled) + " killed");
+	}
+
+	@Override
+	public void onPikesInterrupt(Unit pikes, Unit attacker) {
+		print("** PIKES INTERRUPT ATTACK **");
+	}
+
+	@Override
+	public void onMorale(Unit unit, int roll, int bonus) {
+		print("Morale check (" + unit + "): "
+			+ roll + " + " + bonus + " = " + (roll + bonus));
+	}
+
+	@Override
+	public void onRout(Unit unit) {
+		print(unit + " are * ROUTED *");
+	}
+
+	@Override
+	public void onRetreat(Unit unit) {
+		print(unit + " * RETREATS *");
+	}
+
+	@Override
+	public void onVisible(Unit unit) {
+		print(unit + " become visible!");
+	}
+
+	@Override
+	public void onFear(Unit unit) {
+		print(unit + " confronts * FEAR * ability");
+	}
+
+	@Override
+	public void onControlWeather(Unit caster, BookOfWar.Weather weather) {
+		print(caster + " casts * CONTROL WEATHER * for " + weather);
+	}
+
+	@Override
+	public void onMoveEarth(Unit caster, BookOfWar.Terrain terrain) {
+		print(caster + " casts * MOVE EARTH * to get " + terrain);
+	}
+
+	@Override
+	public void onDeathSpell(Unit caster, Unit target) {
+		print(caster + " casts * DEATH SPELL * on " + target);
+	}
+
+	@Override
+	public void onWandFire(Unit caster) {
+		print(caster + " shoots two * LIGHTNING *");
+	}
+
+	@Override
+	public void onBreath(Unit attacker, SpecialAbility breath) {
+		print(attacker + " uses " + breath);
+	}
+
+	@Override
+	public void onEnergySave(Unit unit, BookOfWar.EnergyType energy) {
+		print(unit + " saves versus " + energy);
+	}
+
+	@Override
+	public void onEnergyDamage(Unit unit, int figsLost,
+		BookOfWar.EnergyType energy)
+	{
+		print(unit + " lost " + figsLost + " figures from " + energy);
+	}
+
+	@Override
+	public void onWhirlwind(Unit attacker, int figsKilled) {
+		print(attacker + " whirlwind sweeps away "
+			+ figsKilled + " figures");
+	}
+
+	@Override
+	public void onStalemate(Unit unit1, Unit unit2) {
+		print("* STALEMATE *: " + unit1 + " and " + unit2 + " draw");
+	}
+
+	@Override
+	public void onWinner(Unit winner) {
+		print("* WINNER *: " + winner);
+	}
+}